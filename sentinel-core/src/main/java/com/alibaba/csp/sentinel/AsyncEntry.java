@@ -0,0 +1,117 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.context.NullContext;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+
+/**
+ * The entry for asynchronous resources. Once created by {@link SphU#asyncEntry(String)}, the entry is
+ * removed from the context of the calling thread, and holds its own async {@link Context}. So it can be
+ * exited in any thread at any time (eg. in the callback of an asynchronous invocation), and the rt and
+ * thread count will reflect the real completion time.
+ *
+ * <p>Entries created within {@link ContextUtil#runOnContext(Context, Runnable)} of {@link #getAsyncContext()}
+ * will be children of this entry in the invocation tree.</p>
+ */
+public class AsyncEntry extends CtEntry {
+
+    private Context asyncContext;
+
+    AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        super(resourceWrapper, chain, context);
+    }
+
+    /**
+     * Remove current entry from the context of the calling thread. Since the async entry is the
+     * current entry when created, its parent will become the current entry again.
+     * This must be invoked after {@link #initAsyncContext()}.
+     */
+    void cleanCurrentEntryInLocal() {
+        if (context instanceof NullContext) {
+            return;
+        }
+        Context originalContext = context;
+        if (originalContext.getCurEntry() != this) {
+            throw new IllegalStateException("Bad async context state");
+        }
+        originalContext.setCurEntry(parent);
+        if (parent != null) {
+            if (parent instanceof CtEntry) {
+                ((CtEntry)parent).child = null;
+            }
+            // The entry is the root of its async context from now on.
+            parent = null;
+        } else {
+            // Auto-created entry indicates immediate exit.
+            ContextUtil.exit();
+        }
+    }
+
+    /**
+     * Create the async context of this entry. The async context shares the entrance node, name and
+     * origin with the original context, and only holds this entry.
+     */
+    void initAsyncContext() {
+        if (asyncContext == null) {
+            if (context instanceof NullContext) {
+                asyncContext = context;
+                return;
+            }
+            Context newContext = Context.newAsyncContext(context.getEntranceNode(), context.getName());
+            newContext.setOrigin(context.getOrigin());
+            newContext.setCurEntry(this);
+            asyncContext = newContext;
+        } else {
+            throw new IllegalStateException("Duplicate initialize of async context for entry: "
+                + resourceWrapper.getName());
+        }
+    }
+
+    @Override
+    protected void clearEntryContext() {
+        super.clearEntryContext();
+        this.asyncContext = null;
+    }
+
+    /**
+     * Get the async context of this entry. Null will be returned after the entry has exited.
+     *
+     * @return the async context of this entry
+     */
+    public Context getAsyncContext() {
+        return asyncContext;
+    }
+
+    @Override
+    protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+        if (asyncContext instanceof NullContext) {
+            // No rule checking has done, and the null context is shared, so nothing to clean.
+            clearEntryContext();
+            return parent;
+        }
+        Context context = asyncContext;
+        exitForContext(context, count, args);
+        if (context != null) {
+            context.releaseEntrance();
+        }
+
+        return parent;
+    }
+}
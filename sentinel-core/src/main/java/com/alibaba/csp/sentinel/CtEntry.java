@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+
+/**
+ * Linked entry within current context.
+ *
+ * @author jialiang.linjl
+ * @author Eric Zhao
+ */
+class CtEntry extends Entry {
+
+    protected Entry parent = null;
+    protected Entry child = null;
+
+    protected ProcessorSlot<Object> chain;
+    protected Context context;
+
+    CtEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        super(resourceWrapper);
+        this.chain = chain;
+        this.context = context;
+
+        setUpEntryFor(context);
+    }
+
+    private void setUpEntryFor(Context context) {
+        parent = context.getCurEntry();
+        if (parent instanceof CtEntry) {
+            ((CtEntry)parent).child = this;
+        }
+        context.setCurEntry(this);
+    }
+
+    @Override
+    public void exit(int count, Object... args) throws ErrorEntryFreeException {
+        trueExit(count, args);
+    }
+
+    protected void exitForContext(Context context, int count, Object... args) throws ErrorEntryFreeException {
+        if (context != null) {
+            if (context.getCurEntry() != this) {
+                // Clean previous call stack. Only entries linked in current context are exited, the parent
+                // placeholder of a forked context belongs to another thread and is never touched.
+                Entry e = context.getCurEntry();
+                while (e instanceof CtEntry) {
+                    CtEntry ctEntry = (CtEntry)e;
+                    ctEntry.exit(count, args);
+                    e = ctEntry.parent;
+                }
+                throw new ErrorEntryFreeException(
+                    "The order of entry free is can't be paired with the order of entry");
+            } else {
+                if (chain != null) {
+                    chain.exit(context, resourceWrapper, count, args);
+                }
+                // Modify the call stack.
+                context.setCurEntry(parent);
+                if (parent instanceof CtEntry) {
+                    ((CtEntry)parent).child = null;
+                }
+                if (parent == null && !context.isAsync()) {
+                    // Auto-created entry indicates immediate exit.
+                    ContextUtil.exit();
+                }
+                // Clean the reference of context in current entry to avoid duplicate exit.
+                clearEntryContext();
+            }
+        }
+    }
+
+    protected void clearEntryContext() {
+        this.context = null;
+    }
+
+    @Override
+    protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+        exitForContext(context, count, args);
+
+        return parent;
+    }
+
+    @Override
+    public Node getLastNode() {
+        return parent == null ? null : parent.getCurNode();
+    }
+}
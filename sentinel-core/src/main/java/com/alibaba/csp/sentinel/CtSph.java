@@ -16,18 +16,18 @@
 package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.context.NullContext;
-import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.MethodResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.SlotChainRegistry;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
@@ -48,10 +48,16 @@ public class CtSph implements Sph {
      * Same resource({@link ResourceWrapper#equals(Object)}) will share the same
      * {@link ProcessorSlotChain}, no matter in which {@link Context}.
      */
-    private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap
-        = new HashMap<ResourceWrapper, ProcessorSlotChain>();
+    private static final SlotChainRegistry chainRegistry = new SlotChainRegistry(
+        SentinelConfig.maxSlotChainSize(), SentinelConfig.slotChainIdleEvictMs());
 
-    private static final Object LOCK = new Object();
+    /**
+     * Cached {@link ResourceHandle}s of inbound and outbound resources, keyed by resource name.
+     */
+    private static final ConcurrentHashMap<String, ResourceHandle> inHandleMap
+        = new ConcurrentHashMap<String, ResourceHandle>();
+    private static final ConcurrentHashMap<String, ResourceHandle> outHandleMap
+        = new ConcurrentHashMap<String, ResourceHandle>();
 
     /**
      * Do all {@link Rule}s checking about the resource.
@@ -59,7 +65,7 @@ public class CtSph implements Sph {
      * <p>Each distinct resource will use a {@link ProcessorSlot} to do rules checking. Same resource will use
      * same {@link ProcessorSlot} globally. </p>
      *
-     * <p>Note that total {@link ProcessorSlot} count must not exceed {@link Constants#MAX_SLOT_CHAIN_SIZE},
+     * <p>Note that total {@link ProcessorSlot} count must not exceed {@link SentinelConfig#maxSlotChainSize()},
      * otherwise no rules checking will do. In this condition, all requests will pass directly, with no checking
      * or exception.</p>
      *
@@ -70,6 +76,25 @@ public class CtSph implements Sph {
      * @throws BlockException if any rule's threshold is exceeded
      */
     public Entry entry(ResourceWrapper resourceWrapper, int count, Object... args) throws BlockException {
+        return entryWithHandle(resourceWrapper, null, count, args);
+    }
+
+    /**
+     * Do all {@link Rule}s checking about the resource of the given pre-resolved handle. The bound
+     * {@link ProcessorSlotChain} of the handle is used directly, so no chain lookup will do.
+     *
+     * @param handle pre-resolved resource handle
+     * @param count  tokens needed
+     * @param args   arguments of user method call
+     * @return {@link Entry} represents this call
+     * @throws BlockException if any rule's threshold is exceeded
+     */
+    public Entry entry(ResourceHandle handle, int count, Object... args) throws BlockException {
+        return entryWithHandle(handle.getResourceWrapper(), handle, count, args);
+    }
+
+    private Entry entryWithHandle(ResourceWrapper resourceWrapper, ResourceHandle handle, int count, Object... args)
+        throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // Init the entry only. No rule checking will occur.
@@ -85,7 +110,7 @@ public class CtSph implements Sph {
             return new CtEntry(resourceWrapper, null, context);
         }
 
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlot<Object> chain = handle != null ? handle.getChain() : lookProcessChain(resourceWrapper);
 
         /*
          * Means processor size exceeds {@link Constants.MAX_ENTRY_SIZE}, no
@@ -107,6 +132,106 @@ public class CtSph implements Sph {
         return e;
     }
 
+    /**
+     * Do all {@link Rule}s checking about the asynchronous resource. The returned {@link AsyncEntry}
+     * is removed from the context of current thread, so it can be exited in any thread.
+     *
+     * @param resourceWrapper resource name
+     * @param count           tokens needed
+     * @param args            arguments of user method call
+     * @return {@link AsyncEntry} represents this call
+     * @throws BlockException if any rule's threshold is exceeded
+     */
+    public AsyncEntry asyncEntry(ResourceWrapper resourceWrapper, int count, Object... args) throws BlockException {
+        Context context = ContextUtil.getContext();
+        if (context instanceof NullContext) {
+            // Init the entry only. No rule checking will occur.
+            return asyncEntryWithNoChain(resourceWrapper, context);
+        }
+
+        if (context == null) {
+            context = MyContextUtil.myEnter(Constants.CONTEXT_DEFAULT_NAME, "", resourceWrapper.getType());
+        }
+
+        // Global switch is close, no rule checking will do.
+        if (!Constants.ON) {
+            return asyncEntryWithNoChain(resourceWrapper, context);
+        }
+
+        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+
+        // Means processor size exceeds the limit, no rule checking will do.
+        if (chain == null) {
+            return asyncEntryWithNoChain(resourceWrapper, context);
+        }
+
+        AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context);
+        try {
+            chain.entry(context, resourceWrapper, null, count, args);
+        } catch (BlockException e1) {
+            // The entry is still in the context of current thread, so exit it there.
+            asyncEntry.exitForContext(context, count, args);
+            throw e1;
+        } catch (Throwable e1) {
+            RecordLog.info("sentinel unexpected exception", e1);
+        }
+        // Move the entry from current context to its own async context.
+        asyncEntry.initAsyncContext();
+        asyncEntry.cleanCurrentEntryInLocal();
+        return asyncEntry;
+    }
+
+    private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
+        AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
+        entry.initAsyncContext();
+        entry.cleanCurrentEntryInLocal();
+        return entry;
+    }
+
+    /**
+     * Create a protected asynchronous resource.
+     *
+     * @param name  the unique name for the protected resource
+     * @param type  the resource is an inbound or an outbound method. This is used
+     *              to mark whether it can be blocked when the system is unstable
+     * @param count the count that the resource requires
+     * @param args  the parameters of the method. It can also be counted by setting
+     *              hot parameter rule
+     * @return created asynchronous entry
+     * @throws BlockException if the block criteria is met
+     */
+    public AsyncEntry asyncEntry(String name, EntryType type, int count, Object... args) throws BlockException {
+        StringResourceWrapper resource = new StringResourceWrapper(name, type);
+        return asyncEntry(resource, count, args);
+    }
+
+    /**
+     * Get the cached {@link ResourceHandle} of the resource, the handle will be created and its
+     * {@link ProcessorSlotChain} bound if absent.
+     *
+     * <p>If total {@link ProcessorSlot} count exceeds {@link SentinelConfig#maxSlotChainSize()}, an uncached
+     * handle without chain is returned, and entries of it will pass directly with no checking.</p>
+     *
+     * @param name the unique name of the protected resource
+     * @param type the resource is an inbound or an outbound method
+     * @return the handle of the resource
+     */
+    public ResourceHandle resource(String name, EntryType type) {
+        ConcurrentHashMap<String, ResourceHandle> handleMap = type == EntryType.IN ? inHandleMap : outHandleMap;
+        ResourceHandle handle = handleMap.get(name);
+        if (handle != null) {
+            return handle;
+        }
+        StringResourceWrapper resourceWrapper = new StringResourceWrapper(name, type);
+        ProcessorSlot<Object> chain = chainRegistry.lookupAndPin(resourceWrapper);
+        handle = new ResourceHandle(resourceWrapper, chain);
+        if (chain == null) {
+            return handle;
+        }
+        ResourceHandle old = handleMap.putIfAbsent(name, handle);
+        return old != null ? old : handle;
+    }
+
     /**
      * Get {@link ProcessorSlotChain} of the resource. new {@link ProcessorSlotChain} will
      * be created if the resource doesn't relate one.
@@ -115,97 +240,15 @@ public class CtSph implements Sph {
      * {@link ProcessorSlotChain} globally, no matter in witch {@link Context}.<p/>
      *
      * <p>
-     * Note that total {@link ProcessorSlot} count must not exceed {@link Constants#MAX_SLOT_CHAIN_SIZE},
-     * otherwise null will return.
+     * Note that total {@link ProcessorSlot} count must not exceed {@link SentinelConfig#maxSlotChainSize()}
+     * (idle chains will be evicted first), otherwise null will return.
      * </p>
      *
      * @param resourceWrapper target resource
      * @return {@link ProcessorSlotChain} of the resource
      */
     private ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
-        ProcessorSlotChain chain = chainMap.get(resourceWrapper);
-        if (chain == null) {
-            synchronized (LOCK) {
-                chain = chainMap.get(resourceWrapper);
-                if (chain == null) {
-                    // Entry size limit.
-                    if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
-                        return null;
-                    }
-
-                    chain = Env.slotsChainbuilder.build();
-                    HashMap<ResourceWrapper, ProcessorSlotChain> newMap
-                        = new HashMap<ResourceWrapper, ProcessorSlotChain>(
-                        chainMap.size() + 1);
-                    newMap.putAll(chainMap);
-                    newMap.put(resourceWrapper, chain);
-                    chainMap = newMap;
-                }
-            }
-        }
-        return chain;
-    }
-
-    private static class CtEntry extends Entry {
-
-        protected Entry parent = null;
-        protected Entry child = null;
-        private ProcessorSlot<Object> chain;
-        private Context context;
-
-        CtEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
-            super(resourceWrapper);
-            this.chain = chain;
-            this.context = context;
-            parent = context.getCurEntry();
-            if (parent != null) {
-                ((CtEntry)parent).child = this;
-            }
-            context.setCurEntry(this);
-        }
-
-        @Override
-        public void exit(int count, Object... args) throws ErrorEntryFreeException {
-            trueExit(count, args);
-        }
-
-        @Override
-        protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
-            if (context != null) {
-                if (context.getCurEntry() != this) {
-                    // Clean previous call stack.
-                    CtEntry e = (CtEntry)context.getCurEntry();
-                    while (e != null) {
-                        e.exit(count, args);
-                        e = (CtEntry)e.parent;
-                    }
-                    throw new ErrorEntryFreeException(
-                        "The order of entry free is can't be paired with the order of entry");
-                } else {
-                    if (chain != null) {
-                        chain.exit(context, resourceWrapper, count, args);
-                    }
-                    // Modify the call stack.
-                    context.setCurEntry(parent);
-                    if (parent != null) {
-                        ((CtEntry)parent).child = null;
-                    }
-                    if (parent == null) {
-                        // Auto-created entry indicates immediate exit.
-                        ContextUtil.exit();
-                    }
-                    // Clean the reference of context in current entry to avoid duplicate exit.
-                    context = null;
-                }
-            }
-            return parent;
-
-        }
-
-        @Override
-        public Node getLastNode() {
-            return parent == null ? null : parent.getCurNode();
-        }
+        return chainRegistry.lookup(resourceWrapper);
     }
 
     /**
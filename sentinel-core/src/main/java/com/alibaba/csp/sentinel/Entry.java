@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.RtProperty;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.context.Context;
 
@@ -53,17 +54,30 @@ public abstract class Entry {
     private static final Object[] OBJECTS0 = new Object[0];
 
     private long createTime;
+    /**
+     * Create time by {@link TimeUtil#nanoTime()}, only recorded when {@link RtProperty#nanoTime} is enabled.
+     */
+    private long createNanoTime;
+    private boolean nanoTimed;
     private Node curNode;
     /**
      * {@link Node} of the specific origin, Usually the origin is the Service Consumer.
      */
     private Node originNode;
     private Throwable error;
+    /**
+     * Pass time scheduled by a non-blocking rate limiter, 0 means no delay.
+     */
+    private long scheduledPassTime = 0;
     protected ResourceWrapper resourceWrapper;
 
     public Entry(ResourceWrapper resourceWrapper) {
         this.resourceWrapper = resourceWrapper;
         this.createTime = TimeUtil.currentTimeMillis();
+        if (RtProperty.nanoTime) {
+            this.createNanoTime = TimeUtil.nanoTime();
+            this.nanoTimed = true;
+        }
     }
 
     public ResourceWrapper getResourceWrapper() {
@@ -108,6 +122,18 @@ public abstract class Entry {
         return createTime;
     }
 
+    public long getCreateNanoTime() {
+        return createNanoTime;
+    }
+
+    /**
+     * Whether {@link #getCreateNanoTime()} is recorded. RT of the entry must be measured by the clock it was
+     * created with, as {@link RtProperty#nanoTime} may be switched while the entry is running.
+     */
+    public boolean isNanoTimed() {
+        return nanoTimed;
+    }
+
     public Node getCurNode() {
         return curNode;
     }
@@ -124,6 +150,31 @@ public abstract class Entry {
         this.error = error;
     }
 
+    public long getScheduledPassTime() {
+        return scheduledPassTime;
+    }
+
+    /**
+     * Schedule the invocation to pass at provided time. When scheduled by multiple rules, the latest one wins.
+     *
+     * @param passTime scheduled pass time in milliseconds
+     */
+    public void schedulePassAt(long passTime) {
+        if (passTime > scheduledPassTime) {
+            this.scheduledPassTime = passTime;
+        }
+    }
+
+    /**
+     * Get the time the caller should delay before executing the invocation. It's only positive when the entry
+     * passed a rate limiter rule in non-blocking mode, which reserved a pass time instead of waiting.
+     *
+     * @return time to wait in milliseconds, 0 means the invocation can execute immediately
+     */
+    public long getWaitInMs() {
+        return Math.max(0, scheduledPassTime - TimeUtil.currentTimeMillis());
+    }
+
     /**
      * Get origin {@link Node} of the this {@link Entry}.
      *
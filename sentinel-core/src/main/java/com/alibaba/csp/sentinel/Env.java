@@ -28,7 +28,11 @@ public class Env {
 
     public static final SlotsChainBuilder slotsChainbuilder = new DefaultSlotsChainBuilder();
     public static final NodeBuilder nodeBuilder = new DefaultNodeBuilder();
-    public static final Sph sph = new CtSph();
+    /**
+     * Same as {@link #sph}, for the entry methods only {@link CtSph} has.
+     */
+    static final CtSph ctSph = new CtSph();
+    public static final Sph sph = ctSph;
 
     static {
         // If init fails, the process will exit.
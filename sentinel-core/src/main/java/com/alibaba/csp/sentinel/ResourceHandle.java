@@ -0,0 +1,87 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+
+/**
+ * A pre-resolved protected resource. The {@link ResourceWrapper} and the {@link ProcessorSlotChain}
+ * (and so the cluster node held by the chain) are bound once when the handle is created,
+ * so entering through a handle needs neither a new wrapper nor a chain map lookup.
+ *
+ * <p>Handles are obtained by {@link SphU#resource(String, EntryType)} and are meant to be
+ * kept by the caller, eg. in a static field:</p>
+ *
+ * <pre>
+ *  private static final ResourceHandle RESOURCE = SphU.resource("abc", EntryType.IN);
+ *
+ *  public void foo() {
+ *     Entry entry = null;
+ *     try {
+ *        entry = SphU.entry(RESOURCE);
+ *        // resource that need protection
+ *     } catch (BlockException blockException) {
+ *         // when goes there, it is blocked
+ *     } finally {
+ *         if (entry != null){
+ *             entry.exit();
+ *         }
+ *     }
+ *  }
+ * </pre>
+ *
+ * @see SphU#resource(String, EntryType)
+ */
+public final class ResourceHandle {
+
+    private final ResourceWrapper resourceWrapper;
+    private final ProcessorSlot<Object> chain;
+
+    ResourceHandle(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain) {
+        this.resourceWrapper = resourceWrapper;
+        this.chain = chain;
+    }
+
+    public ResourceWrapper getResourceWrapper() {
+        return resourceWrapper;
+    }
+
+    /**
+     * Get the bound chain of the resource. Null means the total chain count exceeded
+     * {@link SentinelConfig#maxSlotChainSize()} when the handle was created, so no rule checking will do.
+     *
+     * @return bound chain, may be null
+     */
+    ProcessorSlot<Object> getChain() {
+        return chain;
+    }
+
+    public String getName() {
+        return resourceWrapper.getName();
+    }
+
+    public EntryType getType() {
+        return resourceWrapper.getType();
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceHandle{" + resourceWrapper.getShowName() + ", " + getType() + "}";
+    }
+}
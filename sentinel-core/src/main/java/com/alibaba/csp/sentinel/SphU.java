@@ -200,4 +200,109 @@ public class SphU {
     public static Entry entry(String name, EntryType type, int count, Object... args) throws BlockException {
         return Env.sph.entry(name, type, count, args);
     }
+
+    /**
+     * Get the pre-resolved handle of the resource. The handle binds the resource and its slot chain
+     * once, and should be kept by the caller for later {@link #entry(ResourceHandle)} calls.
+     *
+     * @param name the unique name for the protected resource
+     * @param type the resource is an inbound or an outbound method. This is used
+     *             to mark whether it can be blocked when the system is unstable,
+     *             only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     */
+    public static ResourceHandle resource(String name, EntryType type) {
+        return Env.ctSph.resource(name, type);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource of the handle.
+     *
+     * @param handle the handle of the protected resource, see {@link #resource(String, EntryType)}
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public static Entry entry(ResourceHandle handle) throws BlockException {
+        return Env.ctSph.entry(handle, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource of the handle.
+     *
+     * @param handle the handle of the protected resource, see {@link #resource(String, EntryType)}
+     * @param count  tokens required
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public static Entry entry(ResourceHandle handle, int count) throws BlockException {
+        return Env.ctSph.entry(handle, count, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource of the handle.
+     *
+     * @param handle the handle of the protected resource, see {@link #resource(String, EntryType)}
+     * @param count  tokens required
+     * @param args   extra parameters.
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public static Entry entry(ResourceHandle handle, int count, Object... args) throws BlockException {
+        return Env.ctSph.entry(handle, count, args);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the asynchronous resource.
+     *
+     * <p>The returned {@link AsyncEntry} doesn't stay in the context of current thread, so the entry
+     * should be exited when the asynchronous invocation completes, eg. in the callback:</p>
+     *
+     * <pre>
+     *  try {
+     *      final AsyncEntry entry = SphU.asyncEntry("abc");
+     *      doAsync(new Callback() {
+     *          public void onComplete(Result result, Throwable ex) {
+     *              if (ex != null) {
+     *                  Tracer.traceEntry(ex, entry);
+     *              }
+     *              entry.exit();
+     *          }
+     *      });
+     *  } catch (BlockException blockException) {
+     *      // when goes there, it is blocked
+     *  }
+     * </pre>
+     *
+     * @param name the unique name of the protected resource
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public static AsyncEntry asyncEntry(String name) throws BlockException {
+        return Env.ctSph.asyncEntry(name, EntryType.OUT, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the asynchronous resource.
+     *
+     * @param name the unique name for the protected resource
+     * @param type the resource is an inbound or an outbound method. This is used
+     *             to mark whether it can be blocked when the system is unstable,
+     *             only inbound traffic could be blocked by {@link SystemRule}
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public static AsyncEntry asyncEntry(String name, EntryType type) throws BlockException {
+        return Env.ctSph.asyncEntry(name, type, 1, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the asynchronous resource.
+     *
+     * @param name  the unique name for the protected resource
+     * @param type  the resource is an inbound or an outbound method. This is used
+     *              to mark whether it can be blocked when the system is unstable,
+     *              only inbound traffic could be blocked by {@link SystemRule}
+     * @param count tokens required
+     * @param args  extra parameters.
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded.
+     */
+    public static AsyncEntry asyncEntry(String name, EntryType type, int count, Object... args)
+        throws BlockException {
+        return Env.ctSph.asyncEntry(name, type, count, args);
+    }
 }
@@ -55,4 +55,37 @@ public final class Tracer {
         clusterNode.trace(e, count);
     }
 
+    /**
+     * Trace provided {@link Throwable} to the resource of the given entry. This is designed for
+     * {@link AsyncEntry}, which doesn't belong to the context of current thread.
+     *
+     * @param e     exception to record
+     * @param entry the entry of the resource
+     */
+    public static void traceEntry(Throwable e, Entry entry) {
+        traceEntry(e, 1, entry);
+    }
+
+    /**
+     * Trace provided {@link Throwable} to the resource of the given entry.
+     *
+     * @param e     exception to record
+     * @param count exception count to add
+     * @param entry the entry of the resource
+     */
+    public static void traceEntry(Throwable e, int count, Entry entry) {
+        if (e instanceof BlockException || entry == null) {
+            return;
+        }
+        if (!(entry.getCurNode() instanceof DefaultNode)) {
+            return;
+        }
+
+        // clusterNode can be null when Constants.ON is false.
+        ClusterNode clusterNode = ((DefaultNode)entry.getCurNode()).getClusterNode();
+        if (clusterNode == null) {
+            return;
+        }
+        clusterNode.trace(e, count);
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.server.DefaultTokenService;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * Holds the {@link TokenService} which {@link FlowRule}s in cluster mode request tokens from.
+ * Usually it's a {@link ClusterTokenClient}, or the {@link DefaultTokenService} directly when the
+ * token server is embedded in current instance.
+ */
+public final class TokenClientProvider {
+
+    private static volatile TokenService client = null;
+
+    /**
+     * Get the registered token client.
+     *
+     * @return the token client, or null if not registered
+     */
+    public static TokenService getClient() {
+        return client;
+    }
+
+    /**
+     * Register the token client, null to unregister.
+     *
+     * @param tokenService the token client
+     */
+    public static void register(TokenService tokenService) {
+        client = tokenService;
+    }
+
+    private TokenClientProvider() {}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Wire format between the token client and server. Both frames are fixed length:
+ *
+ * <pre>
+ * request:  int xid | long flowId | int acquireCount | int prefetchCount
+ * response: int xid | int status  | int grantedCount
+ * </pre>
+ */
+public final class TokenProtocol {
+
+    public static void writeRequest(DataOutputStream out, int xid, long flowId, int acquireCount,
+                                    int prefetchCount) throws IOException {
+        out.writeInt(xid);
+        out.writeLong(flowId);
+        out.writeInt(acquireCount);
+        out.writeInt(prefetchCount);
+        out.flush();
+    }
+
+    public static TokenRequest readRequest(DataInputStream in) throws IOException {
+        int xid = in.readInt();
+        long flowId = in.readLong();
+        int acquireCount = in.readInt();
+        int prefetchCount = in.readInt();
+        return new TokenRequest(xid, flowId, acquireCount, prefetchCount);
+    }
+
+    public static void writeResponse(DataOutputStream out, int xid, TokenResult result) throws IOException {
+        out.writeInt(xid);
+        out.writeInt(result.getStatus());
+        out.writeInt(result.getGrantedCount());
+        out.flush();
+    }
+
+    /**
+     * Read a response. Requests on one connection may be in flight at the same time, so responses are
+     * matched to them by the request id.
+     */
+    public static TokenResponse readResponse(DataInputStream in) throws IOException {
+        int xid = in.readInt();
+        int status = in.readInt();
+        int grantedCount = in.readInt();
+        return new TokenResponse(xid, new TokenResult(status, grantedCount));
+    }
+
+    private TokenProtocol() {}
+}
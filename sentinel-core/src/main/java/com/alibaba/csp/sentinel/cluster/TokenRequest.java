@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+/**
+ * A token request received by the token server, see {@link TokenProtocol}.
+ */
+public class TokenRequest {
+
+    private final int xid;
+    private final long flowId;
+    private final int acquireCount;
+    private final int prefetchCount;
+
+    public TokenRequest(int xid, long flowId, int acquireCount, int prefetchCount) {
+        this.xid = xid;
+        this.flowId = flowId;
+        this.acquireCount = acquireCount;
+        this.prefetchCount = prefetchCount;
+    }
+
+    public int getXid() {
+        return xid;
+    }
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public int getAcquireCount() {
+        return acquireCount;
+    }
+
+    public int getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenRequest{" +
+            "xid=" + xid +
+            ", flowId=" + flowId +
+            ", acquireCount=" + acquireCount +
+            ", prefetchCount=" + prefetchCount +
+            '}';
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+/**
+ * A token response received by the token client, see {@link TokenProtocol}.
+ */
+public class TokenResponse {
+
+    private final int xid;
+    private final TokenResult result;
+
+    public TokenResponse(int xid, TokenResult result) {
+        this.xid = xid;
+        this.result = result;
+    }
+
+    public int getXid() {
+        return xid;
+    }
+
+    public TokenResult getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenResponse{" +
+            "xid=" + xid +
+            ", result=" + result +
+            '}';
+    }
+}
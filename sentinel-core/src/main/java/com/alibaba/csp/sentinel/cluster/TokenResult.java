@@ -0,0 +1,76 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+/**
+ * Result of a token request.
+ */
+public class TokenResult {
+
+    private static final TokenResult[] NO_TOKEN_RESULTS = new TokenResult[] {
+        new TokenResult(TokenResultStatus.FAIL, 0),
+        new TokenResult(TokenResultStatus.OK, 0),
+        new TokenResult(TokenResultStatus.BLOCKED, 0),
+        new TokenResult(TokenResultStatus.NO_RULE_EXISTS, 0),
+        new TokenResult(TokenResultStatus.BAD_REQUEST, 0)
+    };
+
+    private final int status;
+    private final int grantedCount;
+
+    public TokenResult(int status, int grantedCount) {
+        this.status = status;
+        this.grantedCount = grantedCount;
+    }
+
+    /**
+     * Get shared result of the status which grants no token.
+     *
+     * @param status one of {@link TokenResultStatus}
+     * @return result of the status
+     */
+    public static TokenResult of(int status) {
+        int i = status + 1;
+        if (i >= 0 && i < NO_TOKEN_RESULTS.length) {
+            return NO_TOKEN_RESULTS[i];
+        }
+        return new TokenResult(status, 0);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Get count of granted tokens. When the status is {@link TokenResultStatus#OK}, it's no less than
+     * the acquired count, and the rest are prefetched tokens.
+     */
+    public int getGrantedCount() {
+        return grantedCount;
+    }
+
+    public boolean isOk() {
+        return status == TokenResultStatus.OK;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenResult{" +
+            "status=" + status +
+            ", grantedCount=" + grantedCount +
+            '}';
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+/**
+ * Status of a {@link TokenResult}.
+ */
+public final class TokenResultStatus {
+
+    /**
+     * The token server is unreachable or failed to respond in time.
+     */
+    public static final int FAIL = -1;
+    public static final int OK = 0;
+    public static final int BLOCKED = 1;
+    /**
+     * The token server has no rule of the flow id.
+     */
+    public static final int NO_RULE_EXISTS = 2;
+    public static final int BAD_REQUEST = 3;
+
+    private TokenResultStatus() {}
+}
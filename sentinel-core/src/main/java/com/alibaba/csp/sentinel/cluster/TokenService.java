@@ -0,0 +1,34 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * Service to request tokens of {@link FlowRule}s in cluster mode.
+ */
+public interface TokenService {
+
+    /**
+     * Request tokens of a cluster flow rule.
+     *
+     * @param flowId       flow id of the rule, see {@link ClusterFlowConfig#getFlowId()}
+     * @param acquireCount count of tokens to acquire
+     * @return result of the request, never null
+     */
+    TokenResult requestToken(long flowId, int acquireCount);
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.alibaba.csp.sentinel.cluster.TokenProtocol;
+import com.alibaba.csp.sentinel.cluster.TokenResponse;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.server.ClusterTokenServer;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * Token client of a {@link ClusterTokenServer}.
+ *
+ * <p>To save round trips, each request to the server asks for up to {@code prefetchCount} extra tokens.
+ * Prefetched tokens are kept per flow and used by later requests without calling the server, until they
+ * run out or expire after {@link #PREFETCHED_TOKEN_VALID_MS} (the statistic interval of the server,
+ * which has already counted them). Tokens left by a new request are added to the unused ones of the flow.</p>
+ *
+ * <p>Requests share one connection without waiting for each other. Each request carries its own id, and a
+ * reader thread of the connection hands every response to the request of the same id. If the server can't be
+ * connected or doesn't respond, each within {@code requestTimeoutMs}, {@link TokenResultStatus#FAIL} returns.
+ * After the connection fails, the client won't try to connect again within {@code reconnectIntervalMs}, so
+ * requests fail fast (and fall back to local checking) while the server is unreachable.</p>
+ */
+public class ClusterTokenClient implements TokenService {
+
+    public static final long PREFETCHED_TOKEN_VALID_MS = 1000;
+
+    private static final int DEFAULT_REQUEST_TIMEOUT_MS = 20;
+    /**
+     * Small enough that tokens left unused by an instance barely lower the global throughput.
+     */
+    private static final int DEFAULT_PREFETCH_COUNT = 4;
+    private static final long DEFAULT_RECONNECT_INTERVAL_MS = 2000;
+
+    private final String host;
+    private final int port;
+    private final int requestTimeoutMs;
+    private final int prefetchCount;
+    private final long reconnectIntervalMs;
+
+    private final ConcurrentHashMap<Long, PrefetchedTokens> prefetched
+        = new ConcurrentHashMap<Long, PrefetchedTokens>();
+    private final AtomicInteger xid = new AtomicInteger(0);
+    private final ThreadFactory readerFactory = new NamedThreadFactory("sentinel-cluster-token-client", true);
+    /**
+     * Guards connecting and closing.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Connection connection;
+    private volatile long lastFailTime = 0;
+
+    public ClusterTokenClient(String host, int port) {
+        this(host, port, DEFAULT_REQUEST_TIMEOUT_MS, DEFAULT_PREFETCH_COUNT, DEFAULT_RECONNECT_INTERVAL_MS);
+    }
+
+    /**
+     * @param host                host of the token server
+     * @param port                port of the token server
+     * @param requestTimeoutMs    timeout of connecting and each request
+     * @param prefetchCount       max count of extra tokens to fetch in each request, 0 means no prefetching
+     * @param reconnectIntervalMs min interval between two connecting attempts after failures
+     */
+    public ClusterTokenClient(String host, int port, int requestTimeoutMs, int prefetchCount,
+                              long reconnectIntervalMs) {
+        this.host = host;
+        this.port = port;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.prefetchCount = Math.max(prefetchCount, 0);
+        this.reconnectIntervalMs = reconnectIntervalMs;
+    }
+
+    @Override
+    public TokenResult requestToken(long flowId, int acquireCount) {
+        if (acquireCount <= 0) {
+            return TokenResult.of(TokenResultStatus.BAD_REQUEST);
+        }
+        if (prefetchCount > 0 && takePrefetched(flowId, acquireCount)) {
+            return new TokenResult(TokenResultStatus.OK, acquireCount);
+        }
+        TokenResult result = requestRemote(flowId, acquireCount);
+        if (result.isOk() && result.getGrantedCount() > acquireCount) {
+            savePrefetched(flowId, result.getGrantedCount() - acquireCount);
+            return new TokenResult(TokenResultStatus.OK, acquireCount);
+        }
+        return result;
+    }
+
+    private boolean takePrefetched(long flowId, int acquireCount) {
+        PrefetchedTokens tokens = prefetched.get(flowId);
+        if (tokens == null || TimeUtil.currentTimeMillis() >= tokens.expireTime) {
+            return false;
+        }
+        return tokens.take(acquireCount);
+    }
+
+    private void savePrefetched(long flowId, int count) {
+        PrefetchedTokens tokens = prefetched.get(flowId);
+        if (tokens == null) {
+            tokens = new PrefetchedTokens();
+            PrefetchedTokens old = prefetched.putIfAbsent(flowId, tokens);
+            if (old != null) {
+                tokens = old;
+            }
+        }
+        tokens.add(count, TimeUtil.currentTimeMillis());
+    }
+
+    private TokenResult requestRemote(long flowId, int acquireCount) {
+        Connection conn = getConnection();
+        if (conn == null) {
+            return TokenResult.of(TokenResultStatus.FAIL);
+        }
+        return conn.request(flowId, acquireCount);
+    }
+
+    private Connection getConnection() {
+        Connection conn = connection;
+        if (conn != null) {
+            return conn;
+        }
+        if (TimeUtil.currentTimeMillis() - lastFailTime < reconnectIntervalMs) {
+            return null;
+        }
+        try {
+            // Another thread may be connecting, which takes no longer than the timeout.
+            if (!lock.tryLock(requestTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            conn = connection;
+            if (conn == null && TimeUtil.currentTimeMillis() - lastFailTime >= reconnectIntervalMs) {
+                conn = connect();
+            }
+            return conn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Must be called under the lock.
+     */
+    private Connection connect() {
+        Socket s = new Socket();
+        try {
+            s.setTcpNoDelay(true);
+            s.connect(new InetSocketAddress(host, port), requestTimeoutMs);
+            Connection conn = new Connection(s);
+            this.connection = conn;
+            readerFactory.newThread(conn).start();
+            RecordLog.info("[ClusterTokenClient] Connected to token server " + host + ":" + port);
+            return conn;
+        } catch (IOException e) {
+            RecordLog.info("[ClusterTokenClient] Failed to connect to token server " + host + ":" + port, e);
+            closeQuietly(s);
+            lastFailTime = TimeUtil.currentTimeMillis();
+            return null;
+        }
+    }
+
+    private void fail(Connection conn) {
+        conn.close();
+        lock.lock();
+        try {
+            if (connection == conn) {
+                connection = null;
+                lastFailTime = TimeUtil.currentTimeMillis();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the connection. The client connects again on the next request.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            Connection conn = connection;
+            if (conn != null) {
+                connection = null;
+                conn.close();
+            }
+            prefetched.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isConnected() {
+        return connection != null;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignore.
+        }
+    }
+
+    /**
+     * A connection to the server. Requests are written under the lock of the output stream, and responses
+     * are read by the reader thread running this connection.
+     */
+    private final class Connection implements Runnable {
+
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final ConcurrentHashMap<Integer, PendingRequest> pending
+            = new ConcurrentHashMap<Integer, PendingRequest>();
+        private volatile boolean closed = false;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        TokenResult request(long flowId, int acquireCount) {
+            int id = xid.incrementAndGet();
+            PendingRequest request = new PendingRequest();
+            pending.put(id, request);
+            try {
+                // Checked after the request is added, as closing fails the pending requests after marking closed.
+                if (closed) {
+                    return TokenResult.of(TokenResultStatus.FAIL);
+                }
+                synchronized (out) {
+                    TokenProtocol.writeRequest(out, id, flowId, acquireCount, prefetchCount);
+                }
+                return request.await(requestTimeoutMs);
+            } catch (IOException e) {
+                RecordLog.info("[ClusterTokenClient] Token request to " + host + ":" + port + " failed", e);
+                fail(this);
+                return TokenResult.of(TokenResultStatus.FAIL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return TokenResult.of(TokenResultStatus.FAIL);
+            } finally {
+                pending.remove(id);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    TokenResponse response = TokenProtocol.readResponse(in);
+                    // Null if the request has timed out.
+                    PendingRequest request = pending.remove(response.getXid());
+                    if (request != null) {
+                        request.complete(response.getResult());
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    RecordLog.info("[ClusterTokenClient] Connection to " + host + ":" + port + " failed", e);
+                }
+                fail(this);
+            }
+        }
+
+        void close() {
+            closed = true;
+            closeQuietly(socket);
+            for (PendingRequest request : pending.values()) {
+                request.complete(TokenResult.of(TokenResultStatus.FAIL));
+            }
+        }
+    }
+
+    private static final class PendingRequest {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile TokenResult result;
+
+        void complete(TokenResult result) {
+            this.result = result;
+            latch.countDown();
+        }
+
+        /**
+         * @return the result, or {@link TokenResultStatus#FAIL} if the server doesn't respond in time
+         */
+        TokenResult await(long timeoutMs) throws InterruptedException {
+            if (!latch.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                return TokenResult.of(TokenResultStatus.FAIL);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Unused prefetched tokens of a flow. Tokens are taken by CAS, and added under the lock.
+     */
+    private static final class PrefetchedTokens {
+        final AtomicInteger left = new AtomicInteger(0);
+        volatile long expireTime = 0;
+
+        /**
+         * Add tokens just granted by the server. Unused tokens which are still valid keep their expire time,
+         * so no token is used after the server stops counting it, while expired ones are dropped.
+         */
+        synchronized void add(int count, long now) {
+            if (now >= expireTime) {
+                left.set(0);
+            }
+            if (left.get() == 0) {
+                // Only tokens are added under the lock, so no earlier token is left.
+                expireTime = now + PREFETCHED_TOKEN_VALID_MS;
+            }
+            left.addAndGet(count);
+        }
+
+        boolean take(int count) {
+            while (true) {
+                int current = left.get();
+                if (current < count) {
+                    return false;
+                }
+                if (left.compareAndSet(current, current - count)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+
+/**
+ * Rules of the token server, indexed by {@link ClusterFlowConfig#getFlowId()}. Only QPS rules in cluster mode
+ * are loaded, and the global pass count of each rule is counted in a one-second sliding window.
+ */
+public final class ClusterFlowRuleManager {
+
+    private static final int SAMPLE_COUNT = 10;
+    private static final int INTERVAL_IN_SEC = 1;
+
+    private static volatile Map<Long, ClusterFlow> flows = new HashMap<Long, ClusterFlow>();
+
+    /**
+     * Load rules of the token server, former rules will be replaced. Counted tokens of a rule are kept
+     * if the rule is not changed.
+     *
+     * @param rules new rules to load
+     */
+    public static synchronized void loadRules(List<FlowRule> rules) {
+        Map<Long, ClusterFlow> newFlows = new HashMap<Long, ClusterFlow>();
+        if (rules != null) {
+            for (FlowRule rule : rules) {
+                if (!isValidClusterRule(rule)) {
+                    RecordLog.warn("[ClusterFlowRuleManager] Ignoring invalid cluster flow rule: " + rule);
+                    continue;
+                }
+                Long flowId = rule.getClusterConfig().getFlowId();
+                ClusterFlow old = flows.get(flowId);
+                if (old != null && old.rule.equals(rule)) {
+                    newFlows.put(flowId, old);
+                } else {
+                    newFlows.put(flowId, new ClusterFlow(rule));
+                }
+            }
+        }
+        flows = newFlows;
+        RecordLog.info("[ClusterFlowRuleManager] Cluster flow rules loaded: " + newFlows.keySet());
+    }
+
+    public static FlowRule getRule(long flowId) {
+        ClusterFlow flow = flows.get(flowId);
+        return flow == null ? null : flow.rule;
+    }
+
+    static ClusterFlow getFlow(long flowId) {
+        return flows.get(flowId);
+    }
+
+    private static boolean isValidClusterRule(FlowRule rule) {
+        return rule != null && rule.isClusterMode() && rule.getClusterConfig() != null
+            && rule.getClusterConfig().getFlowId() != null && rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getCount() >= 0;
+    }
+
+    static final class ClusterFlow {
+        final FlowRule rule;
+        final ArrayMetric metric = new ArrayMetric(INTERVAL_IN_SEC * 1000 / SAMPLE_COUNT, INTERVAL_IN_SEC);
+
+        ClusterFlow(FlowRule rule) {
+            this.rule = rule;
+        }
+    }
+
+    private ClusterFlowRuleManager() {}
+}
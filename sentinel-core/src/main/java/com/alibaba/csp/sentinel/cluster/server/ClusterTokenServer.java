@@ -0,0 +1,189 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.alibaba.csp.sentinel.cluster.TokenProtocol;
+import com.alibaba.csp.sentinel.cluster.TokenRequest;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * A token server based on plain sockets (see {@link TokenProtocol}), which serves {@link DefaultTokenService}
+ * to token clients. It can be embedded in any instance of the cluster, or run in a standalone process:
+ *
+ * <pre>
+ * ClusterFlowRuleManager.loadRules(rules);
+ * ClusterTokenServer server = new ClusterTokenServer(18730);
+ * server.start();
+ * </pre>
+ *
+ * <p>Clients keep their connections, and each connection is served by its own thread.</p>
+ */
+public class ClusterTokenServer {
+
+    private final int port;
+    private final DefaultTokenService tokenService;
+
+    private final Set<Socket> connections = Collections.newSetFromMap(
+        new ConcurrentHashMap<Socket, Boolean>());
+
+    private volatile ServerSocket serverSocket;
+    private ExecutorService executor;
+
+    /**
+     * @param port port to listen, 0 means any free port, see {@link #getPort()}
+     */
+    public ClusterTokenServer(int port) {
+        this(port, new DefaultTokenService());
+    }
+
+    public ClusterTokenServer(int port, DefaultTokenService tokenService) {
+        this.port = port;
+        this.tokenService = tokenService;
+    }
+
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            return;
+        }
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(port));
+        this.executor = Executors.newCachedThreadPool(new NamedThreadFactory("sentinel-cluster-token-server", true));
+        this.serverSocket = socket;
+        executor.submit(new AcceptTask(socket));
+        RecordLog.info("[ClusterTokenServer] Token server started at port " + socket.getLocalPort());
+    }
+
+    public synchronized void stop() {
+        ServerSocket socket = serverSocket;
+        if (socket == null) {
+            return;
+        }
+        serverSocket = null;
+        closeQuietly(socket);
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        connections.clear();
+        executor.shutdownNow();
+        RecordLog.info("[ClusterTokenServer] Token server stopped");
+    }
+
+    /**
+     * Get the listening port.
+     *
+     * @return the listening port, or -1 if the server is not started
+     */
+    public int getPort() {
+        ServerSocket socket = serverSocket;
+        return socket == null ? -1 : socket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    private static void closeQuietly(ServerSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignore.
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignore.
+        }
+    }
+
+    private final class AcceptTask implements Runnable {
+
+        private final ServerSocket socket;
+
+        AcceptTask(ServerSocket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket connection = socket.accept();
+                    connection.setTcpNoDelay(true);
+                    connections.add(connection);
+                    executor.submit(new ConnectionTask(connection));
+                } catch (Exception e) {
+                    if (!socket.isClosed()) {
+                        RecordLog.info("[ClusterTokenServer] Failed to accept connection", e);
+                    }
+                }
+            }
+        }
+    }
+
+    private final class ConnectionTask implements Runnable {
+
+        private final Socket connection;
+
+        ConnectionTask(Socket connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void run() {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                while (true) {
+                    TokenRequest request = TokenProtocol.readRequest(in);
+                    TokenResult result = tokenService.requestToken(request.getFlowId(), request.getAcquireCount(),
+                        request.getPrefetchCount());
+                    TokenProtocol.writeResponse(out, request.getXid(), result);
+                }
+            } catch (EOFException e) {
+                // Closed by the client.
+            } catch (IOException e) {
+                if (!connection.isClosed()) {
+                    RecordLog.info("[ClusterTokenServer] Connection from " + connection.getRemoteSocketAddress()
+                        + " failed", e);
+                }
+            } finally {
+                connections.remove(connection);
+                closeQuietly(connection);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * Token service of the token server, which checks requests against the global count of the rules in
+ * {@link ClusterFlowRuleManager}. It can also be registered as the client directly when the token server
+ * is embedded in current instance.
+ */
+public class DefaultTokenService implements TokenService {
+
+    @Override
+    public TokenResult requestToken(long flowId, int acquireCount) {
+        return requestToken(flowId, acquireCount, 0);
+    }
+
+    /**
+     * Request tokens, and up to {@code prefetchCount} more tokens if the rule has enough remaining tokens.
+     *
+     * @param flowId        flow id of the rule
+     * @param acquireCount  count of tokens which must all be granted
+     * @param prefetchCount count of extra tokens to grant if possible
+     * @return result of the request
+     */
+    public TokenResult requestToken(long flowId, int acquireCount, int prefetchCount) {
+        if (acquireCount <= 0 || prefetchCount < 0) {
+            return TokenResult.of(TokenResultStatus.BAD_REQUEST);
+        }
+        ClusterFlowRuleManager.ClusterFlow flow = ClusterFlowRuleManager.getFlow(flowId);
+        if (flow == null) {
+            return TokenResult.of(TokenResultStatus.NO_RULE_EXISTS);
+        }
+        FlowRule rule = flow.rule;
+        // Check and count in one step, so concurrent requests never grant more than the threshold.
+        synchronized (flow) {
+            long remaining = (long)rule.getCount() - flow.metric.pass();
+            if (remaining < acquireCount) {
+                flow.metric.addBlock(acquireCount);
+                return TokenResult.of(TokenResultStatus.BLOCKED);
+            }
+            int granted = (int)Math.min(remaining, (long)acquireCount + prefetchCount);
+            flow.metric.addPass(granted);
+            return new TokenResult(TokenResultStatus.OK, granted);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.Callable;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.ErrorEntryFreeException;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.context.NullContext;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.Node;
+
+/**
+ * Captured {@link Context} and current {@link Entry} of a thread. Only references are captured, the
+ * invocation tree is not copied. Each {@link #fork()} creates a new context of the same name, origin
+ * and entrance node. Its root is an immutable placeholder of the captured entry, so nodes of entries
+ * created in other threads become children of the captured entry's node, while the captured entry
+ * itself (owned by the original thread) is never linked to or exited from the forked context.
+ */
+final class ContextSnapshot {
+
+    private final Context context;
+    private final Entry entry;
+
+    private ContextSnapshot(Context context, Entry entry) {
+        this.context = context;
+        this.entry = entry;
+    }
+
+    /**
+     * Capture the context of current thread.
+     *
+     * @return the snapshot, or null if current thread doesn't have context
+     */
+    static ContextSnapshot capture() {
+        Context context = ContextUtil.getContext();
+        if (context == null) {
+            return null;
+        }
+        return new ContextSnapshot(context, context.getCurEntry());
+    }
+
+    /**
+     * Run the task on a fork of the captured context. The fork releases its entrance when the task finishes.
+     *
+     * @param task the task to run
+     */
+    void run(Runnable task) {
+        Context forked = fork();
+        try {
+            ContextUtil.runOnContext(forked, task);
+        } finally {
+            release(forked);
+        }
+    }
+
+    /**
+     * Call the task on a fork of the captured context. The fork releases its entrance when the task finishes.
+     *
+     * @param task the task to call
+     * @return result of the task
+     * @throws Exception if the task fails
+     */
+    <V> V call(Callable<V> task) throws Exception {
+        Context forked = fork();
+        try {
+            return ContextUtil.callOnContext(forked, task);
+        } finally {
+            release(forked);
+        }
+    }
+
+    /**
+     * Fork the captured context. The fork retains the entrance node, and must be released by
+     * {@link Context#releaseEntrance()} when it's no longer used.
+     *
+     * @return the forked context, or null if the entrance has been evicted since the capture, in which
+     * case the task should run without context
+     */
+    Context fork() {
+        if (context instanceof NullContext) {
+            return context;
+        }
+        DefaultNode entrance = context.getEntranceNode();
+        Context forked = Context.newAsyncContext(entrance, context.getName());
+        if (entrance instanceof EntranceNode && ((EntranceNode)entrance).isEvicted()) {
+            // The original context has exited and its tree has been evicted.
+            return null;
+        }
+        forked.setOrigin(context.getOrigin());
+        if (entry != null) {
+            forked.setCurEntry(new ForkedParentEntry(entry));
+        }
+        return forked;
+    }
+
+    private static void release(Context forked) {
+        if (forked != null) {
+            forked.releaseEntrance();
+        }
+    }
+
+    /**
+     * Placeholder of the captured entry as the root of a forked context. It only carries the nodes of
+     * the captured entry, and can't be exited.
+     */
+    private static final class ForkedParentEntry extends Entry {
+
+        private final Node lastNode;
+
+        ForkedParentEntry(Entry captured) {
+            super(captured.getResourceWrapper());
+            setCurNode(captured.getCurNode());
+            setOriginNode(captured.getOriginNode());
+            this.lastNode = captured.getLastNode();
+        }
+
+        @Override
+        public void exit(int count, Object... args) throws ErrorEntryFreeException {
+            trueExit(count, args);
+        }
+
+        @Override
+        protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+            throw new ErrorEntryFreeException("The entry of resource " + resourceWrapper.getName()
+                + " is owned by another context");
+        }
+
+        @Override
+        public Node getLastNode() {
+            return lastNode;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.Callable;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+
+/**
+ * A {@link Callable} wrapper which calls the task within the {@link Context} of the thread that
+ * created the wrapper.
+ *
+ * @param <V> result type of the task
+ * @see SentinelRunnable
+ */
+public class SentinelCallable<V> implements Callable<V> {
+
+    private final Callable<V> task;
+    private final ContextSnapshot snapshot;
+
+    public SentinelCallable(Callable<V> task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        this.task = task;
+        this.snapshot = ContextSnapshot.capture();
+    }
+
+    /**
+     * Wrap the task with the context of current thread.
+     *
+     * @param task the task to wrap
+     * @return wrapped task, or the task itself if current thread doesn't have context
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        if (task instanceof SentinelCallable || ContextUtil.getContext() == null) {
+            return task;
+        }
+        return new SentinelCallable<V>(task);
+    }
+
+    @Override
+    public V call() throws Exception {
+        if (snapshot == null) {
+            return task.call();
+        }
+        return snapshot.call(task);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import java.util.concurrent.Executor;
+
+import com.alibaba.csp.sentinel.context.Context;
+
+/**
+ * An {@link Executor} wrapper which runs every task within the {@link Context} of the thread
+ * that submitted the task.
+ *
+ * @see SentinelExecutorService
+ */
+public class SentinelExecutor implements Executor {
+
+    private final Executor delegate;
+
+    public SentinelExecutor(Executor delegate) {
+        if (delegate == null) {
+            throw new NullPointerException("delegate");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(SentinelRunnable.wrap(command));
+    }
+}
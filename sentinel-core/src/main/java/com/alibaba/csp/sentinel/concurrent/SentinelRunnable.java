@@ -0,0 +1,59 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+
+/**
+ * A {@link Runnable} wrapper which runs the task within the {@link Context} of the thread that
+ * created the wrapper, so the invocation tree and chain strategy rules work across threads.
+ */
+public class SentinelRunnable implements Runnable {
+
+    private final Runnable task;
+    private final ContextSnapshot snapshot;
+
+    public SentinelRunnable(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        this.task = task;
+        this.snapshot = ContextSnapshot.capture();
+    }
+
+    /**
+     * Wrap the task with the context of current thread.
+     *
+     * @param task the task to wrap
+     * @return wrapped task, or the task itself if current thread doesn't have context
+     */
+    public static Runnable wrap(Runnable task) {
+        if (task instanceof SentinelRunnable || ContextUtil.getContext() == null) {
+            return task;
+        }
+        return new SentinelRunnable(task);
+    }
+
+    @Override
+    public void run() {
+        if (snapshot == null) {
+            task.run();
+        } else {
+            snapshot.run(task);
+        }
+    }
+}
@@ -21,10 +21,12 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.log.LogBase;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.AppNameUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * The universal config of Courier. The config is retrieved from
@@ -40,9 +42,27 @@ public class SentinelConfig {
     public static final String SINGLE_METRIC_FILE_SIZE = "csp.sentinel.metric.file.single.size";
     public static final String TOTAL_METRIC_FILE_COUNT = "csp.sentinel.metric.file.total.count";
     public static final String COLD_FACTOR = "csp.sentinel.flow.cold.factor";
+    public static final String MAX_SLOT_CHAIN_SIZE = "csp.sentinel.slot.chain.max.size";
+    public static final String SLOT_CHAIN_IDLE_EVICT_MS = "csp.sentinel.slot.chain.idle.evict.ms";
+    public static final String CONTEXT_IDLE_EVICT_MS = "csp.sentinel.context.idle.evict.ms";
+    public static final String MAX_ORIGIN_NODE_SIZE = "csp.sentinel.statistic.origin.max.size";
+    public static final String MAX_PARAM_FLOW_KEY_SIZE = "csp.sentinel.param.flow.key.max.size";
+    public static final String STATISTIC_RT_NANO = "csp.sentinel.statistic.rt.nano";
+    public static final String STATISTIC_RT_HISTOGRAM = "csp.sentinel.statistic.rt.histogram";
+    public static final String STATISTIC_FLAT = "csp.sentinel.statistic.flat";
+    /**
+     * Clock of {@link TimeUtil}: {@code adaptive} (default), {@code nano} or {@code system}.
+     */
+    public static final String CLOCK_MODE = "csp.sentinel.clock.mode";
 
     static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
     static final int DEFAULT_TOTAL_METRIC_FILE_COUNT = 6;
+    static final int DEFAULT_MAX_SLOT_CHAIN_SIZE = Constants.MAX_SLOT_CHAIN_SIZE;
+    static final long DEFAULT_SLOT_CHAIN_IDLE_EVICT_MS = 10 * 60 * 1000;
+    static final long DEFAULT_CONTEXT_IDLE_EVICT_MS = 10 * 60 * 1000;
+    static final int DEFAULT_MAX_ORIGIN_NODE_SIZE = Constants.MAX_ORIGIN_NODE_SIZE;
+    static final int DEFAULT_MAX_PARAM_FLOW_KEY_SIZE = 10000;
+    static final String DEFAULT_CLOCK_MODE = TimeUtil.CLOCK_MODE_ADAPTIVE;
 
     static {
         initialize();
@@ -55,6 +75,15 @@ public class SentinelConfig {
         SentinelConfig.setConfig(SINGLE_METRIC_FILE_SIZE, String.valueOf(DEFAULT_SINGLE_METRIC_FILE_SIZE));
         SentinelConfig.setConfig(TOTAL_METRIC_FILE_COUNT, String.valueOf(DEFAULT_TOTAL_METRIC_FILE_COUNT));
         SentinelConfig.setConfig(COLD_FACTOR, String.valueOf(3));
+        SentinelConfig.setConfig(MAX_SLOT_CHAIN_SIZE, String.valueOf(DEFAULT_MAX_SLOT_CHAIN_SIZE));
+        SentinelConfig.setConfig(SLOT_CHAIN_IDLE_EVICT_MS, String.valueOf(DEFAULT_SLOT_CHAIN_IDLE_EVICT_MS));
+        SentinelConfig.setConfig(CONTEXT_IDLE_EVICT_MS, String.valueOf(DEFAULT_CONTEXT_IDLE_EVICT_MS));
+        SentinelConfig.setConfig(MAX_ORIGIN_NODE_SIZE, String.valueOf(DEFAULT_MAX_ORIGIN_NODE_SIZE));
+        SentinelConfig.setConfig(MAX_PARAM_FLOW_KEY_SIZE, String.valueOf(DEFAULT_MAX_PARAM_FLOW_KEY_SIZE));
+        SentinelConfig.setConfig(STATISTIC_RT_NANO, String.valueOf(false));
+        SentinelConfig.setConfig(STATISTIC_RT_HISTOGRAM, String.valueOf(false));
+        SentinelConfig.setConfig(STATISTIC_FLAT, String.valueOf(false));
+        SentinelConfig.setConfig(CLOCK_MODE, DEFAULT_CLOCK_MODE);
     }
 
     private static void loadProps() {
@@ -146,4 +175,74 @@ public class SentinelConfig {
             return DEFAULT_TOTAL_METRIC_FILE_COUNT;
         }
     }
+
+    public static int maxSlotChainSize() {
+        try {
+            return Integer.parseInt(props.get(MAX_SLOT_CHAIN_SIZE));
+        } catch (Throwable throwable) {
+            RecordLog.info("SentinelConfig get maxSlotChainSize fail, use default value: "
+                + DEFAULT_MAX_SLOT_CHAIN_SIZE, throwable);
+            return DEFAULT_MAX_SLOT_CHAIN_SIZE;
+        }
+    }
+
+    /**
+     * Get idle time (in ms) after which a slot chain can be evicted when the chain size limit is reached.
+     * Non-positive value means never evict.
+     */
+    public static long slotChainIdleEvictMs() {
+        try {
+            return Long.parseLong(props.get(SLOT_CHAIN_IDLE_EVICT_MS));
+        } catch (Throwable throwable) {
+            RecordLog.info("SentinelConfig get slotChainIdleEvictMs fail, use default value: "
+                + DEFAULT_SLOT_CHAIN_IDLE_EVICT_MS, throwable);
+            return DEFAULT_SLOT_CHAIN_IDLE_EVICT_MS;
+        }
+    }
+
+    /**
+     * Get idle time (in ms) after which a context which is referenced by no thread can be evicted.
+     * Non-positive value means never evict.
+     */
+    public static long contextIdleEvictMs() {
+        try {
+            return Long.parseLong(props.get(CONTEXT_IDLE_EVICT_MS));
+        } catch (Throwable throwable) {
+            RecordLog.info("SentinelConfig get contextIdleEvictMs fail, use default value: "
+                + DEFAULT_CONTEXT_IDLE_EVICT_MS, throwable);
+            return DEFAULT_CONTEXT_IDLE_EVICT_MS;
+        }
+    }
+
+    /**
+     * Get max count of origin nodes of one resource, invocations from more origins are counted together.
+     */
+    public static int maxOriginNodeSize() {
+        try {
+            return Integer.parseInt(props.get(MAX_ORIGIN_NODE_SIZE));
+        } catch (Throwable throwable) {
+            RecordLog.info("SentinelConfig get maxOriginNodeSize fail, use default value: "
+                + DEFAULT_MAX_ORIGIN_NODE_SIZE, throwable);
+            return DEFAULT_MAX_ORIGIN_NODE_SIZE;
+        }
+    }
+
+    /**
+     * Get max count of distinct parameter values counted by one parameter flow rule. Counters of the least
+     * recently used values are dropped when the limit is reached.
+     */
+    public static int maxParamFlowKeySize() {
+        try {
+            return Integer.parseInt(props.get(MAX_PARAM_FLOW_KEY_SIZE));
+        } catch (Throwable throwable) {
+            RecordLog.info("SentinelConfig get maxParamFlowKeySize fail, use default value: "
+                + DEFAULT_MAX_PARAM_FLOW_KEY_SIZE, throwable);
+            return DEFAULT_MAX_PARAM_FLOW_KEY_SIZE;
+        }
+    }
+
+    public static String clockMode() {
+        String mode = props.get(CLOCK_MODE);
+        return StringUtil.isBlank(mode) ? DEFAULT_CLOCK_MODE : mode.trim();
+    }
 }
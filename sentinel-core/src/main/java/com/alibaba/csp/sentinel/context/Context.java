@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.context;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.SphO;
 import com.alibaba.csp.sentinel.SphU;
@@ -75,10 +77,51 @@ public class Context {
      */
     private String origin = "";
 
+    private final boolean async;
+
+    private static final AtomicIntegerFieldUpdater<Context> ENTRANCE_RETAINED_UPDATER
+        = AtomicIntegerFieldUpdater.newUpdater(Context.class, "entranceRetained");
+
+    /**
+     * 1 if the context holds a reference of its {@link EntranceNode}, see {@link EntranceNode#retain()}.
+     */
+    private volatile int entranceRetained = 0;
+
+    /**
+     * Create a new async context. The context retains its {@link EntranceNode} until
+     * {@link #releaseEntrance()}, so the invocation tree won't be evicted while the context is in use.
+     * If the entrance has already been evicted, the context is created without retaining it.
+     *
+     * @param entranceNode entrance node of the context
+     * @param name         context name
+     * @return the new created context
+     */
+    public static Context newAsyncContext(DefaultNode entranceNode, String name) {
+        Context context = new Context(name, entranceNode, true);
+        if (entranceNode instanceof EntranceNode && ((EntranceNode)entranceNode).retain()) {
+            context.markEntranceRetained();
+        }
+        return context;
+    }
+
     public Context(DefaultNode entranceNode, String name) {
-        super();
+        this(name, entranceNode, false);
+    }
+
+    public Context(String name, DefaultNode entranceNode, boolean async) {
         this.name = name;
         this.entranceNode = entranceNode;
+        this.async = async;
+    }
+
+    /**
+     * Whether this context is an async context, that is held by an {@link com.alibaba.csp.sentinel.AsyncEntry}
+     * rather than the ThreadLocal of any thread.
+     *
+     * @return true if this context is async
+     */
+    public boolean isAsync() {
+        return async;
     }
 
     public String getName() {
@@ -161,4 +204,18 @@ public class Context {
     public Node getOriginNode() {
         return curEntry == null ? null : curEntry.getOriginNode();
     }
+
+    void markEntranceRetained() {
+        this.entranceRetained = 1;
+    }
+
+    /**
+     * Release the reference of the {@link EntranceNode}, a context only releases once. An async
+     * context should be released when its work finishes, see {@link #newAsyncContext(DefaultNode, String)}.
+     */
+    public void releaseEntrance() {
+        if (ENTRANCE_RETAINED_UPDATER.compareAndSet(this, 1, 0) && entranceNode instanceof EntranceNode) {
+            ((EntranceNode)entranceNode).release();
+        }
+    }
 }
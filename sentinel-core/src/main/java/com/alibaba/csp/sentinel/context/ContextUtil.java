@@ -15,19 +15,26 @@
  */
 package com.alibaba.csp.sentinel.context;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.SphO;
 import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.EvictionStatistics;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * Utility class to get or create {@link Context} in current thread.
@@ -54,6 +61,14 @@ public class ContextUtil {
     private static volatile Map<String, DefaultNode> contextNameNodeMap = new HashMap<String, DefaultNode>();
 
     private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * Idle eviction scans all contexts, so don't scan again within this period when the last scan evicted nothing.
+     */
+    private static final long EVICT_SCAN_INTERVAL_MS = 1000;
+
+    private static final long contextIdleEvictMs = SentinelConfig.contextIdleEvictMs();
+    private static volatile long lastFailedEvictTime = 0;
     private static final Context NULL_CONTEXT = new NullContext();
 
     /**
@@ -95,36 +110,19 @@ public class ContextUtil {
     protected static Context trueEnter(String name, String origin) {
         Context context = contextHolder.get();
         if (context == null) {
-            Map<String, DefaultNode> localCacheNameMap = contextNameNodeMap;
-            DefaultNode node = localCacheNameMap.get(name);
-            if (node == null) {
-                if (localCacheNameMap.size() > Constants.MAX_CONTEXT_NAME_SIZE) {
+            DefaultNode node = contextNameNodeMap.get(name);
+            if (node == null || !retain(node)) {
+                if (node == null && contextNameNodeMap.size() > Constants.MAX_CONTEXT_NAME_SIZE
+                    && TimeUtil.currentTimeMillis() - lastFailedEvictTime < EVICT_SCAN_INTERVAL_MS) {
+                    return NULL_CONTEXT;
+                }
+                node = retainOrCreateEntrance(name);
+                if (node == null) {
                     return NULL_CONTEXT;
-                } else {
-                    try {
-                        LOCK.lock();
-                        node = contextNameNodeMap.get(name);
-                        if (node == null) {
-                            if (contextNameNodeMap.size() > Constants.MAX_CONTEXT_NAME_SIZE) {
-                                return NULL_CONTEXT;
-                            } else {
-                                node = new EntranceNode(new StringResourceWrapper(name, EntryType.IN), null);
-                                // Add entrance node.
-                                Constants.ROOT.addChild(node);
-
-                                Map<String, DefaultNode> newMap = new HashMap<String, DefaultNode>(
-                                    contextNameNodeMap.size() + 1);
-                                newMap.putAll(contextNameNodeMap);
-                                newMap.put(name, node);
-                                contextNameNodeMap = newMap;
-                            }
-                        }
-                    } finally {
-                        LOCK.unlock();
-                    }
                 }
             }
             context = new Context(node, name);
+            context.markEntranceRetained();
             context.setOrigin(origin);
             contextHolder.set(context);
         }
@@ -132,6 +130,99 @@ public class ContextUtil {
         return context;
     }
 
+    private static boolean retain(DefaultNode node) {
+        return !(node instanceof EntranceNode) || ((EntranceNode)node).retain();
+    }
+
+    /**
+     * Get and retain the entrance node of the context name, new entrance node will be created if absent.
+     * Idle contexts will be evicted if the context count exceeds {@link Constants#MAX_CONTEXT_NAME_SIZE}.
+     *
+     * @return the retained entrance node, or null if no more context can be created
+     */
+    private static DefaultNode retainOrCreateEntrance(String name) {
+        try {
+            LOCK.lock();
+            // Entrance nodes are evicted and removed from the map with the lock held,
+            // so the node got here is never evicted.
+            DefaultNode node = contextNameNodeMap.get(name);
+            if (node != null && retain(node)) {
+                return node;
+            }
+            if (contextNameNodeMap.size() > Constants.MAX_CONTEXT_NAME_SIZE && evictIdle(contextIdleEvictMs) == 0) {
+                lastFailedEvictTime = TimeUtil.currentTimeMillis();
+                RecordLog.warn("[ContextUtil] Context size exceeds " + Constants.MAX_CONTEXT_NAME_SIZE
+                    + " and no idle context could be evicted, new contexts will enter without protection");
+                return null;
+            }
+            EntranceNode entranceNode = new EntranceNode(new StringResourceWrapper(name, EntryType.IN), null);
+            entranceNode.retain();
+            // Add entrance node.
+            Constants.ROOT.addChild(entranceNode);
+
+            Map<String, DefaultNode> newMap = new HashMap<String, DefaultNode>(contextNameNodeMap.size() + 1);
+            newMap.putAll(contextNameNodeMap);
+            newMap.put(name, entranceNode);
+            contextNameNodeMap = newMap;
+            return entranceNode;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Evict contexts which are referenced by no {@link Context} and have not been entered for provided time.
+     * Their {@link EntranceNode}s and the whole invocation trees under them are removed, and will be created
+     * again when the context is entered next time.
+     *
+     * @param idleMs idle time in milliseconds, non-positive value means never evict
+     * @return count of the evicted contexts
+     */
+    public static int evictIdleContexts(long idleMs) {
+        try {
+            LOCK.lock();
+            return evictIdle(idleMs);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static int evictIdle(long idleMs) {
+        if (idleMs <= 0) {
+            return 0;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        List<String> evicted = new ArrayList<String>();
+        for (Map.Entry<String, DefaultNode> e : contextNameNodeMap.entrySet()) {
+            DefaultNode node = e.getValue();
+            if (node instanceof EntranceNode && ((EntranceNode)node).tryEvict(now, idleMs)) {
+                evicted.add(e.getKey());
+            }
+        }
+        if (evicted.isEmpty()) {
+            return 0;
+        }
+        Map<String, DefaultNode> newMap = new HashMap<String, DefaultNode>(contextNameNodeMap);
+        for (String name : evicted) {
+            DefaultNode node = newMap.remove(name);
+            Constants.ROOT.removeChild(node);
+            node.markRemoved();
+        }
+        contextNameNodeMap = newMap;
+        EvictionStatistics.addEvictedContexts(evicted.size());
+        RecordLog.info("[ContextUtil] Evicted " + evicted.size() + " idle contexts");
+        return evicted.size();
+    }
+
+    /**
+     * Get count of the contexts, that is count of {@link EntranceNode}s.
+     *
+     * @return count of the contexts
+     */
+    public static int contextSize() {
+        return contextNameNodeMap.size();
+    }
+
     /**
      * <p>
      * Enter the invocation context. The context is ThreadLocal, meaning that
@@ -163,6 +254,7 @@ public class ContextUtil {
         Context context = contextHolder.get();
         if (context != null && context.getCurEntry() == null) {
             contextHolder.set(null);
+            context.releaseEntrance();
         }
     }
 
@@ -175,4 +267,55 @@ public class ContextUtil {
     public static Context getContext() {
         return contextHolder.get();
     }
+
+    /**
+     * Replace current context with the provided context.
+     * This is mainly designed for context switching (e.g. in asynchronous invocation).
+     *
+     * @param newContext new context
+     * @return old context
+     */
+    static Context replaceContext(Context newContext) {
+        Context backupContext = contextHolder.get();
+        if (newContext == null) {
+            contextHolder.remove();
+        } else {
+            contextHolder.set(newContext);
+        }
+        return backupContext;
+    }
+
+    /**
+     * Execute the code within provided context.
+     * This is mainly designed for context switching (e.g. in asynchronous invocation).
+     *
+     * @param context the context
+     * @param f       lambda to run within the context
+     */
+    public static void runOnContext(Context context, Runnable f) {
+        Context curContext = replaceContext(context);
+        try {
+            f.run();
+        } finally {
+            replaceContext(curContext);
+        }
+    }
+
+    /**
+     * Execute the code within provided context and return its result.
+     * This is mainly designed for context switching (e.g. in asynchronous invocation).
+     *
+     * @param context the context
+     * @param f       callable to run within the context
+     * @return result of the callable
+     * @throws Exception if the callable throws
+     */
+    public static <V> V callOnContext(Context context, Callable<V> f) throws Exception {
+        Context curContext = replaceContext(context);
+        try {
+            return f.call();
+        } finally {
+            replaceContext(curContext);
+        }
+    }
 }
@@ -16,10 +16,15 @@
 package com.alibaba.csp.sentinel.node;
 
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * <p>
@@ -35,6 +40,12 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
  * origin.<br/>
  * Note that 'origin' usually is Service Consumer's app name.
  * </p>
+ * <p>
+ * Count of the origin nodes is limited by {@link SentinelConfig#maxOriginNodeSize()}. When the limit is reached,
+ * idle origins (no running thread and no data in minute-level statistics) are evicted, and if none could be
+ * evicted, invocations from new origins are counted together in the node of {@link #OVERFLOW_ORIGIN}.
+ * Origins named by rules ({@link ReservedOrigins}) always have their own nodes.
+ * </p>
  *
  * @author qinan.qn
  * @author jialiang.linjl
@@ -42,46 +53,157 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 public class ClusterNode extends StatisticNode {
 
     /**
-     * <p>
-     * the longer the application runs, the more stable this mapping will
-     * become. so we don't concurrent map but a lock. as this lock only happens
-     * at the very beginning while concurrent map will hold the lock all the
-     * time
-     * </p>
+     * Origin of the node which counts invocations of all origins beyond the limit.
+     */
+    public static final String OVERFLOW_ORIGIN = "__overflow_origin__";
+
+    /**
+     * Evicting idle origins scans all origin nodes, so don't scan again within this period.
+     */
+    private static final long EVICT_SCAN_INTERVAL_MS = 1000;
+
+    private final int maxOriginSize;
+
+    /**
+     * Lookups never lock. New origin nodes are added (and idle ones evicted) under the lock,
+     * so {@link #originCount} is also guarded by the lock.
+     */
+    private final ConcurrentHashMap<String, StatisticNode> originCountMap
+        = new ConcurrentHashMap<String, StatisticNode>();
+    private volatile int originCount = 0;
+    private volatile StatisticNode overflowNode = null;
+    private volatile long lastEvictScanTime = 0;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ClusterNode() {
+        this(SentinelConfig.maxOriginNodeSize());
+    }
+
+    /**
+     * @param maxOriginSize max count of origin nodes
+     */
+    public ClusterNode(int maxOriginSize) {
+        this(maxOriginSize, 0, 0);
+    }
+
+    /**
+     * @param maxOriginSize max count of origin nodes
+     * @param sampleCount   count of buckets of second-level statistics in the interval
+     * @param intervalInSec time length of second-level statistics, non-positive values follow the global properties
      */
-    private HashMap<String, StatisticNode> originCountMap = new HashMap<String, StatisticNode>();
-    private ReentrantLock lock = new ReentrantLock();
+    public ClusterNode(int maxOriginSize, int sampleCount, int intervalInSec) {
+        super(sampleCount, intervalInSec);
+        this.maxOriginSize = maxOriginSize;
+    }
 
     /**
      * Get {@link Node} of the specific origin. Usually the origin is the Service Consumer's app name.
      *
      * @param origin The caller's name. It is declared in the
      *               {@link ContextUtil#enter(String name, String origin)}.
-     * @return the {@link Node} of the specific origin.
+     * @return the {@link Node} of the specific origin, or the node of {@link #OVERFLOW_ORIGIN} if too many
+     * origins are present and the origin is not a {@link ReservedOrigins reserved origin}.
      */
     public Node getOriginNode(String origin) {
         StatisticNode statisticNode = originCountMap.get(origin);
-        if (statisticNode == null) {
+        if (statisticNode != null) {
+            return statisticNode;
+        }
+        boolean reserved = ReservedOrigins.contains(origin);
+        if (!reserved && originCount >= maxOriginSize
+            && TimeUtil.currentTimeMillis() - lastEvictScanTime < EVICT_SCAN_INTERVAL_MS) {
+            // Full and scanned just now, so don't wait for the lock.
+            return getOverflowNode();
+        }
+        try {
+            lock.lock();
+            statisticNode = originCountMap.get(origin);
+            if (statisticNode == null) {
+                if (originCount >= maxOriginSize && !evictIdleOrigins() && !reserved) {
+                    return getOverflowNode();
+                }
+                statisticNode = new StatisticNode(getSampleCount(), getIntervalInSec());
+                originCountMap.put(origin, statisticNode);
+                originCount++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return statisticNode;
+    }
+
+    /**
+     * Must be called under the lock.
+     */
+    private boolean evictIdleOrigins() {
+        long now = TimeUtil.currentTimeMillis();
+        if (now - lastEvictScanTime < EVICT_SCAN_INTERVAL_MS) {
+            return false;
+        }
+        lastEvictScanTime = now;
+        int evicted = 0;
+        for (Map.Entry<String, StatisticNode> e : originCountMap.entrySet()) {
+            if (e.getValue().isIdle() && originCountMap.remove(e.getKey(), e.getValue())) {
+                evicted++;
+            }
+        }
+        originCount -= evicted;
+        if (evicted == 0) {
+            RecordLog.warn("[ClusterNode] Origin count exceeds " + maxOriginSize
+                + " and no idle origin could be evicted, new origins will be counted as " + OVERFLOW_ORIGIN);
+        }
+        return evicted > 0;
+    }
+
+    private StatisticNode getOverflowNode() {
+        StatisticNode node = overflowNode;
+        if (node == null) {
             try {
                 lock.lock();
-                statisticNode = originCountMap.get(origin);
-                if (statisticNode == null) {
-                    statisticNode = new StatisticNode();
-                    HashMap<String, StatisticNode> newMap = new HashMap<String, StatisticNode>(
-                        originCountMap.size() + 1);
-                    newMap.putAll(originCountMap);
-                    newMap.put(origin, statisticNode);
-                    originCountMap = newMap;
+                node = overflowNode;
+                if (node == null) {
+                    node = new StatisticNode(getSampleCount(), getIntervalInSec());
+                    overflowNode = node;
                 }
             } finally {
                 lock.unlock();
             }
         }
-        return statisticNode;
+        return node;
     }
 
-    public synchronized HashMap<String, StatisticNode> getOriginCountMap() {
-        return originCountMap;
+    /**
+     * Change the window layout of this node and all the origin nodes.
+     */
+    @Override
+    public void resetWindow(int sampleCount, int intervalInSec) {
+        try {
+            lock.lock();
+            super.resetWindow(sampleCount, intervalInSec);
+            for (StatisticNode originNode : originCountMap.values()) {
+                originNode.resetWindow(sampleCount, intervalInSec);
+            }
+            if (overflowNode != null) {
+                overflowNode.resetWindow(sampleCount, intervalInSec);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get a snapshot of the origin nodes. The node of {@link #OVERFLOW_ORIGIN} is included if any invocation
+     * has been counted in it.
+     *
+     * @return a new map of origin nodes
+     */
+    public HashMap<String, StatisticNode> getOriginCountMap() {
+        HashMap<String, StatisticNode> map = new HashMap<String, StatisticNode>(originCountMap);
+        StatisticNode overflow = overflowNode;
+        if (overflow != null) {
+            map.put(OVERFLOW_ORIGIN, overflow);
+        }
+        return map;
     }
 
     /**
@@ -92,9 +214,7 @@ public class ClusterNode extends StatisticNode {
      */
     public void trace(Throwable throwable, int count) {
         if (!BlockException.isBlockException(throwable)) {
-            for (int i = 0; i < count; i++) {
-                this.increaseExceptionQps();
-            }
+            this.increaseExceptionQps(count);
         }
     }
 }
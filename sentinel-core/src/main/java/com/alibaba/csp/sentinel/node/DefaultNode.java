@@ -46,7 +46,23 @@ public class DefaultNode extends StatisticNode {
 
     private ClusterNode clusterNode;
 
+    /**
+     * Whether the node has been removed from the invocation tree, see {@link #markRemoved()}.
+     */
+    private volatile boolean removed = false;
+
     public DefaultNode(ResourceWrapper id, ClusterNode clusterNode) {
+        this(id, clusterNode, 0, 0);
+    }
+
+    /**
+     * @param id            resource of the node
+     * @param clusterNode   cluster node of the resource
+     * @param sampleCount   count of buckets of second-level statistics in the interval
+     * @param intervalInSec time length of second-level statistics, non-positive values follow the global properties
+     */
+    public DefaultNode(ResourceWrapper id, ClusterNode clusterNode, int sampleCount, int intervalInSec) {
+        super(sampleCount, intervalInSec);
         this.id = id;
         this.clusterNode = clusterNode;
     }
@@ -79,6 +95,18 @@ public class DefaultNode extends StatisticNode {
         }
     }
 
+    public void removeChild(Node node) {
+        if (childList.contains(node)) {
+            synchronized (this) {
+                if (childList.contains(node)) {
+                    HashSet<Node> newSet = new HashSet<Node>(childList);
+                    newSet.remove(node);
+                    childList = newSet;
+                }
+            }
+        }
+    }
+
     public void removeChildList() {
         this.childList = new HashSet<Node>();
     }
@@ -87,22 +115,42 @@ public class DefaultNode extends StatisticNode {
         return childList;
     }
 
+    /**
+     * Mark the node and all its descendants as removed from the invocation tree. Removed nodes won't be
+     * used by new invocations, a new node will be created instead.
+     */
+    public void markRemoved() {
+        if (removed) {
+            return;
+        }
+        this.removed = true;
+        for (Node child : childList) {
+            if (child instanceof DefaultNode) {
+                ((DefaultNode)child).markRemoved();
+            }
+        }
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+
     @Override
-    public void increaseBlockedQps() {
-        super.increaseBlockedQps();
-        this.clusterNode.increaseBlockedQps();
+    public void increaseBlockedQps(int count, long time) {
+        super.increaseBlockedQps(count, time);
+        this.clusterNode.increaseBlockedQps(count, time);
     }
 
     @Override
-    public void increaseExceptionQps() {
-        super.increaseExceptionQps();
-        this.clusterNode.increaseExceptionQps();
+    public void increaseExceptionQps(int count, long time) {
+        super.increaseExceptionQps(count, time);
+        this.clusterNode.increaseExceptionQps(count, time);
     }
 
     @Override
-    public void rt(long rt) {
-        super.rt(rt);
-        this.clusterNode.rt(rt);
+    public void addRtMicros(long rtMicros, int count, long time) {
+        super.addRtMicros(rtMicros, count, time);
+        this.clusterNode.addRtMicros(rtMicros, count, time);
     }
 
     @Override
@@ -118,9 +166,9 @@ public class DefaultNode extends StatisticNode {
     }
 
     @Override
-    public void addPassRequest() {
-        super.addPassRequest();
-        this.clusterNode.addPassRequest();
+    public void addPassRequest(int count, long time) {
+        super.addPassRequest(count, time);
+        this.clusterNode.addPassRequest(count, time);
     }
 
     public void printDefaultNode() {
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.node;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 
 /**
@@ -27,9 +28,38 @@ public class DefaultNodeBuilder implements NodeBuilder {
         return new DefaultNode(id, clusterNode);
     }
 
+    /**
+     * Build a tree node with the window layout of provided config.
+     *
+     * @param id           resource of the node
+     * @param clusterNode  cluster node of the resource
+     * @param windowConfig window config of the resource, null to follow the global properties
+     * @return new tree node
+     */
+    public DefaultNode buildTreeNode(ResourceWrapper id, ClusterNode clusterNode, ResourceWindowConfig windowConfig) {
+        if (windowConfig == null) {
+            return buildTreeNode(id, clusterNode);
+        }
+        return new DefaultNode(id, clusterNode, windowConfig.getSampleCount(), windowConfig.getIntervalInSec());
+    }
+
     @Override
     public ClusterNode buildClusterNode() {
         return new ClusterNode();
     }
 
+    /**
+     * Build a cluster node with the window layout of provided config.
+     *
+     * @param windowConfig window config of the resource, null to follow the global properties
+     * @return new cluster node
+     */
+    public ClusterNode buildClusterNode(ResourceWindowConfig windowConfig) {
+        if (windowConfig == null) {
+            return buildClusterNode();
+        }
+        return new ClusterNode(SentinelConfig.maxOriginNodeSize(), windowConfig.getSampleCount(),
+            windowConfig.getIntervalInSec());
+    }
+
 }
@@ -15,10 +15,13 @@
  */
 package com.alibaba.csp.sentinel.node;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * <p>
@@ -30,6 +33,10 @@ import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
  * current context does't have one. Note that same context name will share same {@link EntranceNode}
  * globally.
  * </p>
+ * <p>
+ * Live {@link Context}s retain their entrance, so an entrance is evicted only when no context refers to it
+ * and it has been idle for a while, see {@link ContextUtil#evictIdleContexts(long)}.
+ * </p>
  *
  * @author qinan.qn
  * @see ContextUtil
@@ -38,10 +45,89 @@ import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
  */
 public class EntranceNode extends DefaultNode {
 
+    private static final int EVICTED = -1;
+
+    /**
+     * Last access time will only be updated when it's older than this, so entering a hot context
+     * won't write the shared field every time.
+     */
+    private static final long ACCESS_TIME_PRECISION_MS = 1000;
+
+    /**
+     * Count of live {@link Context}s of this entrance, or {@link #EVICTED}.
+     */
+    private final AtomicInteger contextRefs = new AtomicInteger(0);
+    private volatile long lastAccessTime = TimeUtil.currentTimeMillis();
+
     public EntranceNode(ResourceWrapper id, ClusterNode clusterNode) {
         super(id, clusterNode);
     }
 
+    /**
+     * Retain the entrance by a new {@link Context}.
+     *
+     * @return false if the entrance has been evicted and can't be used any more
+     */
+    public boolean retain() {
+        while (true) {
+            int refs = contextRefs.get();
+            if (refs == EVICTED) {
+                return false;
+            }
+            if (contextRefs.compareAndSet(refs, refs + 1)) {
+                touch();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release the entrance when a {@link Context} retained it exits.
+     */
+    public void release() {
+        touch();
+        contextRefs.decrementAndGet();
+    }
+
+    /**
+     * Mark the entrance evicted if it's not referenced by any {@link Context}, has no running thread
+     * and has not been entered for provided time. An evicted entrance can never be retained again.
+     *
+     * @param now    current time
+     * @param idleMs idle time in milliseconds
+     * @return true if the entrance is evicted
+     */
+    public boolean tryEvict(long now, long idleMs) {
+        if (now - lastAccessTime < idleMs || curThreadNum() > 0) {
+            return false;
+        }
+        return contextRefs.compareAndSet(0, EVICTED);
+    }
+
+    /**
+     * Whether the entrance has been evicted. Once evicted, it stays evicted.
+     *
+     * @return true if the entrance has been evicted
+     */
+    public boolean isEvicted() {
+        return contextRefs.get() == EVICTED;
+    }
+
+    public int getContextRefs() {
+        return Math.max(contextRefs.get(), 0);
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    private void touch() {
+        long now = TimeUtil.currentTimeMillis();
+        if (now - lastAccessTime > ACCESS_TIME_PRECISION_MS) {
+            lastAccessTime = now;
+        }
+    }
+
     @Override
     public long avgRt() {
         long rt = 0;
@@ -116,4 +202,30 @@ public class EntranceNode extends DefaultNode {
         return r;
     }
 
+    @Override
+    public NodeSnapshot snapshot() {
+        NodeSnapshot base = super.snapshot();
+        long rt = 0;
+        int curThreadNum = 0;
+        long passQps = 0;
+        long blockedQps = 0;
+        long successQps = 0;
+        long totalRequest = 0;
+        long blockedRequest = 0;
+        for (Node node : getChildList()) {
+            if (!(node instanceof StatisticNode)) {
+                continue;
+            }
+            NodeSnapshot child = ((StatisticNode)node).snapshot();
+            rt += child.avgRt() * child.passQps();
+            curThreadNum += child.curThreadNum();
+            passQps += child.passQps();
+            blockedQps += child.blockedQps();
+            successQps += child.successQps();
+            totalRequest += child.totalRequest();
+            blockedRequest += child.blockedRequest();
+        }
+        return new NodeSnapshot(base, curThreadNum, passQps, blockedQps, successQps,
+            rt / (passQps == 0 ? 1 : passQps), totalRequest, blockedRequest);
+    }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.SlotChainRegistry;
+
+/**
+ * Accumulated counts of the evicted idle contexts ({@link ContextUtil#evictIdleContexts(long)}),
+ * resources ({@link SlotChainRegistry}) and invocation tree nodes ({@link IdleNodeSweeper}).
+ */
+public final class EvictionStatistics {
+
+    private static final AtomicLong evictedContexts = new AtomicLong(0);
+    private static final AtomicLong evictedResources = new AtomicLong(0);
+    private static final AtomicLong evictedTreeNodes = new AtomicLong(0);
+
+    public static void addEvictedContexts(int count) {
+        evictedContexts.addAndGet(count);
+    }
+
+    public static void addEvictedResources(int count) {
+        evictedResources.addAndGet(count);
+    }
+
+    public static void addEvictedTreeNodes(int count) {
+        evictedTreeNodes.addAndGet(count);
+    }
+
+    public static long getEvictedContexts() {
+        return evictedContexts.get();
+    }
+
+    public static long getEvictedResources() {
+        return evictedResources.get();
+    }
+
+    public static long getEvictedTreeNodes() {
+        return evictedTreeNodes.get();
+    }
+
+    private EvictionStatistics() {}
+}
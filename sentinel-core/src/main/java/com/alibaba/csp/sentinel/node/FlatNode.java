@@ -0,0 +1,182 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+
+/**
+ * <p>
+ * A {@link DefaultNode} used in flat statistic mode (see {@link FlatStatisticProperty}). One resource has only
+ * one {@link FlatNode} shared by all {@link Context}s, and it is not linked into the invocation tree.
+ * </p>
+ * <p>
+ * The node holds no statistics itself. All events are counted only on its {@link ClusterNode}, and all
+ * statistics are read from the {@link ClusterNode} too.
+ * </p>
+ *
+ * @see NodeSelectorSlot
+ */
+public class FlatNode extends DefaultNode {
+
+    public FlatNode(ResourceWrapper id, ClusterNode clusterNode) {
+        super(id, clusterNode);
+    }
+
+    @Override
+    public void addPassRequest(int count, long time) {
+        getClusterNode().addPassRequest(count, time);
+    }
+
+    @Override
+    public void addRtMicros(long rtMicros, int count, long time) {
+        getClusterNode().addRtMicros(rtMicros, count, time);
+    }
+
+    @Override
+    public void increaseBlockedQps(int count, long time) {
+        getClusterNode().increaseBlockedQps(count, time);
+    }
+
+    @Override
+    public void increaseExceptionQps(int count, long time) {
+        getClusterNode().increaseExceptionQps(count, time);
+    }
+
+    @Override
+    public void increaseThreadNum() {
+        getClusterNode().increaseThreadNum();
+    }
+
+    @Override
+    public void decreaseThreadNum() {
+        getClusterNode().decreaseThreadNum();
+    }
+
+    @Override
+    public long totalRequest() {
+        return getClusterNode().totalRequest();
+    }
+
+    @Override
+    public long totalSuccess() {
+        return getClusterNode().totalSuccess();
+    }
+
+    @Override
+    public long blockedRequest() {
+        return getClusterNode().blockedRequest();
+    }
+
+    @Override
+    public long totalException() {
+        return getClusterNode().totalException();
+    }
+
+    @Override
+    public long passQps() {
+        return getClusterNode().passQps();
+    }
+
+    @Override
+    public long blockedQps() {
+        return getClusterNode().blockedQps();
+    }
+
+    @Override
+    public long totalQps() {
+        return getClusterNode().totalQps();
+    }
+
+    @Override
+    public long successQps() {
+        return getClusterNode().successQps();
+    }
+
+    @Override
+    public long maxSuccessQps() {
+        return getClusterNode().maxSuccessQps();
+    }
+
+    @Override
+    public long exceptionQps() {
+        return getClusterNode().exceptionQps();
+    }
+
+    @Override
+    public long avgRt() {
+        return getClusterNode().avgRt();
+    }
+
+    @Override
+    public long avgRtMicros() {
+        return getClusterNode().avgRtMicros();
+    }
+
+    @Override
+    public long minRt() {
+        return getClusterNode().minRt();
+    }
+
+    @Override
+    public long minRtMicros() {
+        return getClusterNode().minRtMicros();
+    }
+
+    @Override
+    public long maxRt() {
+        return getClusterNode().maxRt();
+    }
+
+    @Override
+    public long maxRtMicros() {
+        return getClusterNode().maxRtMicros();
+    }
+
+    @Override
+    public double rtPercentile(double percentile) {
+        return getClusterNode().rtPercentile(percentile);
+    }
+
+    @Override
+    public int curThreadNum() {
+        return getClusterNode().curThreadNum();
+    }
+
+    @Override
+    public long previousBlockQps() {
+        return getClusterNode().previousBlockQps();
+    }
+
+    @Override
+    public long previousPassQps() {
+        return getClusterNode().previousPassQps();
+    }
+
+    @Override
+    public Map<Long, MetricNode> metrics() {
+        return getClusterNode().metrics();
+    }
+
+    @Override
+    public NodeSnapshot snapshot() {
+        return getClusterNode().snapshot();
+    }
+}
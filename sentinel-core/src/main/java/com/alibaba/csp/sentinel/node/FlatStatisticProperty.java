@@ -0,0 +1,42 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
+/**
+ * Switch of flat statistic mode.
+ */
+public class FlatStatisticProperty {
+
+    /**
+     * <p>
+     * Whether to skip the {@link DefaultNode}s of each {@link Context}. When enabled, resources without flow rules
+     * of {@link RuleConstant#STRATEGY_CHAIN} are counted only on the {@link ClusterNode} and origin nodes through
+     * a shared {@link FlatNode}, so every event is counted once less and no per-context node is created.
+     * </p>
+     * <p>
+     * The invocation tree (and the statistics of {@link EntranceNode}s) will not contain those resources.
+     * </p>
+     */
+    public static volatile boolean enabled = false;
+
+    static {
+        enabled = Boolean.parseBoolean(SentinelConfig.getConfig(SentinelConfig.STATISTIC_FLAT));
+    }
+}
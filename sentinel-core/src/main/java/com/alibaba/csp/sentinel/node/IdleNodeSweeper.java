@@ -0,0 +1,107 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.IdentityHashMap;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * Reclaims idle parts of the invocation tree. Contexts which have not been entered for
+ * {@link SentinelConfig#contextIdleEvictMs()} are evicted together with their whole tree, see
+ * {@link ContextUtil#evictIdleContexts(long)}. Within the remaining contexts, nodes which are idle
+ * (no running thread and no data in the minute-level statistics) and have no child left are removed
+ * from the tree, and will be created again by the next invocation.
+ */
+public class IdleNodeSweeper implements Runnable {
+
+    private final long contextIdleEvictMs;
+
+    public IdleNodeSweeper() {
+        this(SentinelConfig.contextIdleEvictMs());
+    }
+
+    public IdleNodeSweeper(long contextIdleEvictMs) {
+        this.contextIdleEvictMs = contextIdleEvictMs;
+    }
+
+    @Override
+    public void run() {
+        try {
+            int contexts = ContextUtil.evictIdleContexts(contextIdleEvictMs);
+            int nodes = sweepTree();
+            if (nodes > 0) {
+                RecordLog.info("[IdleNodeSweeper] Removed " + nodes + " idle nodes from the invocation tree");
+            }
+            if (contexts > 0 || nodes > 0) {
+                RecordLog.info("[IdleNodeSweeper] Total evicted: contexts=" + EvictionStatistics.getEvictedContexts()
+                    + ", resources=" + EvictionStatistics.getEvictedResources()
+                    + ", treeNodes=" + EvictionStatistics.getEvictedTreeNodes());
+            }
+        } catch (Throwable e) {
+            RecordLog.info("[IdleNodeSweeper] Failed to sweep idle nodes", e);
+        }
+    }
+
+    /**
+     * Remove idle nodes under all entrances once.
+     *
+     * @return count of the removed nodes
+     */
+    public static int sweepTree() {
+        int removed = 0;
+        for (Node entrance : Constants.ROOT.getChildList()) {
+            if (entrance instanceof DefaultNode) {
+                removed += sweepTreeOf((DefaultNode)entrance);
+            }
+        }
+        return removed;
+    }
+
+    static int sweepTreeOf(DefaultNode entrance) {
+        int removed = sweepChildren(entrance, new IdentityHashMap<Node, Boolean>());
+        if (removed > 0) {
+            EvictionStatistics.addEvictedTreeNodes(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Sweep children of the node in post order, so a chain of idle nodes goes in one sweep.
+     */
+    private static int sweepChildren(DefaultNode parent, IdentityHashMap<Node, Boolean> visited) {
+        if (visited.put(parent, Boolean.TRUE) != null) {
+            return 0;
+        }
+        int removed = 0;
+        for (Node child : parent.getChildList()) {
+            if (!(child instanceof DefaultNode) || child instanceof EntranceNode) {
+                continue;
+            }
+            DefaultNode node = (DefaultNode)child;
+            removed += sweepChildren(node, visited);
+            if (node.getChildList().isEmpty() && node.isIdle()) {
+                parent.removeChild(node);
+                node.markRemoved();
+                removed++;
+            }
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.IdentityHashMap;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+/**
+ * Reclaims minute-level statistics of all nodes (cluster nodes, origin nodes and nodes of the invocation tree)
+ * which have no data in the whole interval, see {@link StatisticNode#reclaimIdleMinuteCounter()}.
+ */
+public class MinuteCounterSweeper implements Runnable {
+
+    @Override
+    public void run() {
+        try {
+            int reclaimed = sweep();
+            if (reclaimed > 0) {
+                RecordLog.info("[MinuteCounterSweeper] Reclaimed minute statistics of " + reclaimed + " idle nodes");
+            }
+        } catch (Throwable e) {
+            RecordLog.info("[MinuteCounterSweeper] Failed to sweep idle minute statistics", e);
+        }
+    }
+
+    /**
+     * Sweep all nodes once.
+     *
+     * @return count of the nodes whose minute statistics are reclaimed
+     */
+    public static int sweep() {
+        int reclaimed = 0;
+        for (ClusterNode clusterNode : ClusterBuilderSlot.getClusterNodeMap().values()) {
+            reclaimed += reclaim(clusterNode);
+            for (StatisticNode originNode : clusterNode.getOriginCountMap().values()) {
+                reclaimed += reclaim(originNode);
+            }
+        }
+        reclaimed += sweepTree(Constants.ROOT, new IdentityHashMap<Node, Boolean>());
+        return reclaimed;
+    }
+
+    private static int sweepTree(DefaultNode parent, IdentityHashMap<Node, Boolean> visited) {
+        if (visited.put(parent, Boolean.TRUE) != null) {
+            return 0;
+        }
+        int reclaimed = reclaim(parent);
+        for (Node child : parent.getChildList()) {
+            if (child instanceof DefaultNode) {
+                reclaimed += sweepTree((DefaultNode)child, visited);
+            }
+        }
+        return reclaimed;
+    }
+
+    private static int reclaim(StatisticNode node) {
+        return node.reclaimIdleMinuteCounter() ? 1 : 0;
+    }
+}
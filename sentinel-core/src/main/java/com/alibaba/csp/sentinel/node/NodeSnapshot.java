@@ -0,0 +1,216 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import com.alibaba.csp.sentinel.slots.statistic.metric.MetricSnapshot;
+
+/**
+ * <p>
+ * Point-in-time statistics of a {@link Node}. All values are taken in one pass over the sliding windows
+ * at the same time point, so they are consistent with each other (eg. {@link #totalQps()} always equals
+ * {@link #passQps()} + {@link #blockedQps()}), and reading all of them costs only one traversal.
+ * </p>
+ * <p>
+ * Meanings of the values are the same as the methods of {@link Node} with the same name.
+ * </p>
+ *
+ * @see StatisticNode#snapshot()
+ */
+public class NodeSnapshot {
+
+    private final long timestamp;
+    private final MetricSnapshot second;
+
+    private final int curThreadNum;
+    private final long passQps;
+    private final long blockedQps;
+    private final long successQps;
+    private final long exceptionQps;
+    private final long maxSuccessQps;
+    private final long avgRt;
+    private final long minRt;
+
+    private final long totalRequest;
+    private final long blockedRequest;
+    private final long totalSuccess;
+    private final long totalException;
+
+    /**
+     * @param timestamp    time when the snapshot is taken
+     * @param curThreadNum current thread count of the node
+     * @param second       snapshot of the second-level statistics
+     * @param minute       snapshot of the minute-level statistics, null if there is no minute-level data
+     */
+    NodeSnapshot(long timestamp, int curThreadNum, MetricSnapshot second, MetricSnapshot minute) {
+        this.timestamp = timestamp;
+        this.second = second;
+        this.curThreadNum = curThreadNum;
+        this.passQps = perSecond(second, second.pass());
+        this.blockedQps = perSecond(second, second.block());
+        this.successQps = perSecond(second, second.success());
+        this.exceptionQps = perSecond(second, second.exception());
+        this.maxSuccessQps = perSecond(second, second.maxSuccess() * second.getSampleCount());
+        this.avgRt = second.success() == 0 ? 0 : second.rt() / second.success();
+        this.minRt = second.minRt();
+        if (minute != null) {
+            this.totalRequest = (minute.pass() + minute.block()) / 2;
+            this.blockedRequest = minute.block() / 2;
+            this.totalSuccess = minute.success() / 2;
+            this.totalException = minute.exception() / 2;
+        } else {
+            this.totalRequest = 0;
+            this.blockedRequest = 0;
+            this.totalSuccess = 0;
+            this.totalException = 0;
+        }
+    }
+
+    /**
+     * Create a snapshot with the values aggregated from child nodes, other values are taken from provided base.
+     *
+     * @param base           snapshot of the node itself
+     * @param curThreadNum   aggregated current thread count
+     * @param passQps        aggregated pass QPS
+     * @param blockedQps     aggregated blocked QPS
+     * @param successQps     aggregated success QPS
+     * @param avgRt          aggregated average RT in milliseconds
+     * @param totalRequest   aggregated total request count per minute
+     * @param blockedRequest aggregated blocked request count per minute
+     */
+    NodeSnapshot(NodeSnapshot base, int curThreadNum, long passQps, long blockedQps, long successQps, long avgRt,
+                 long totalRequest, long blockedRequest) {
+        this.timestamp = base.timestamp;
+        this.second = base.second;
+        this.curThreadNum = curThreadNum;
+        this.passQps = passQps;
+        this.blockedQps = blockedQps;
+        this.successQps = successQps;
+        this.exceptionQps = base.exceptionQps;
+        this.maxSuccessQps = base.maxSuccessQps;
+        this.avgRt = avgRt;
+        this.minRt = base.minRt;
+        this.totalRequest = totalRequest;
+        this.blockedRequest = blockedRequest;
+        this.totalSuccess = base.totalSuccess;
+        this.totalException = base.totalException;
+    }
+
+    private static long perSecond(MetricSnapshot metric, long count) {
+        return count * 1000 / metric.getIntervalInMs();
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int curThreadNum() {
+        return curThreadNum;
+    }
+
+    public long passQps() {
+        return passQps;
+    }
+
+    public long blockedQps() {
+        return blockedQps;
+    }
+
+    public long totalQps() {
+        return passQps + blockedQps;
+    }
+
+    public long successQps() {
+        return successQps;
+    }
+
+    public long exceptionQps() {
+        return exceptionQps;
+    }
+
+    public long maxSuccessQps() {
+        return maxSuccessQps;
+    }
+
+    public long avgRt() {
+        return avgRt;
+    }
+
+    public long minRt() {
+        return minRt;
+    }
+
+    public long minRtMicros() {
+        return second.minRtMicros();
+    }
+
+    /**
+     * @return max RT in milliseconds, 0 if no RT recorded
+     */
+    public long maxRt() {
+        return second.maxRtMicros() / 1000;
+    }
+
+    /**
+     * @return max RT in microseconds, 0 if no RT recorded
+     */
+    public long maxRtMicros() {
+        return second.maxRtMicros();
+    }
+
+    /**
+     * @param percentile percentile in (0, 1]
+     * @return RT at provided percentile in milliseconds, 0 if no RT recorded or RT histogram is disabled
+     */
+    public double rtPercentile(double percentile) {
+        return second.rtPercentile(percentile) / 1000.0;
+    }
+
+    public long totalRequest() {
+        return totalRequest;
+    }
+
+    public long blockedRequest() {
+        return blockedRequest;
+    }
+
+    public long passedRequest() {
+        return totalRequest - blockedRequest;
+    }
+
+    public long totalSuccess() {
+        return totalSuccess;
+    }
+
+    public long totalException() {
+        return totalException;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeSnapshot{" +
+            "timestamp=" + timestamp +
+            ", curThreadNum=" + curThreadNum +
+            ", passQps=" + passQps +
+            ", blockedQps=" + blockedQps +
+            ", successQps=" + successQps +
+            ", exceptionQps=" + exceptionQps +
+            ", avgRt=" + avgRt +
+            ", maxRt=" + maxRt() +
+            ", totalRequest=" + totalRequest +
+            ", blockedRequest=" + blockedRequest +
+            '}';
+    }
+}
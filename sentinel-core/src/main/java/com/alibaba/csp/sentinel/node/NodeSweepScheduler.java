@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+
+/**
+ * Runs the sweepers reclaiming idle statistics on their own thread. They are started with the first
+ * {@link StatisticNode}, so reclamation doesn't depend on any rule manager being loaded, and a walk of
+ * the whole invocation tree doesn't delay other scheduled tasks such as metric logging.
+ */
+final class NodeSweepScheduler {
+
+    private static final long SWEEP_INTERVAL_SEC = 60;
+
+    private static final AtomicBoolean started = new AtomicBoolean(false);
+
+    static void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
+            new NamedThreadFactory("sentinel-node-sweep-task", true));
+        scheduler.scheduleAtFixedRate(new MinuteCounterSweeper(), SWEEP_INTERVAL_SEC, SWEEP_INTERVAL_SEC,
+            TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(new IdleNodeSweeper(), SWEEP_INTERVAL_SEC, SWEEP_INTERVAL_SEC,
+            TimeUnit.SECONDS);
+    }
+
+    private NodeSweepScheduler() {}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Origins named by rules, e.g. the limit app of flow rules and authority rules. {@link ClusterNode}
+ * always creates nodes for these origins, so they are never counted in {@link ClusterNode#OVERFLOW_ORIGIN}
+ * however many other origins are present.
+ */
+public final class ReservedOrigins {
+
+    public static final String SOURCE_FLOW_RULE = "flowRule";
+    public static final String SOURCE_AUTHORITY_RULE = "authorityRule";
+
+    private static final Map<String, Set<String>> originsOfSource = new HashMap<String, Set<String>>();
+    private static volatile Set<String> origins = Collections.emptySet();
+
+    /**
+     * Replace the origins named by rules of the source.
+     *
+     * @param source  the source of the origins, e.g. {@link #SOURCE_FLOW_RULE}
+     * @param reserve origins to reserve
+     */
+    public static synchronized void update(String source, Set<String> reserve) {
+        originsOfSource.put(source, new HashSet<String>(reserve));
+        Set<String> all = new HashSet<String>();
+        for (Set<String> s : originsOfSource.values()) {
+            all.addAll(s);
+        }
+        origins = all;
+    }
+
+    public static boolean contains(String origin) {
+        return origins.contains(origin);
+    }
+
+    private ReservedOrigins() {}
+}
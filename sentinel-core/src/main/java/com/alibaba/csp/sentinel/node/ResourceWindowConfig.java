@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+/**
+ * Sliding window layout of second-level statistics for a specific resource. Resources without config use
+ * the global {@link SampleCountProperty#sampleCount} and {@link IntervalProperty#INTERVAL}.
+ *
+ * <p>More samples make the statistics smoother at window boundaries (eg. for low QPS limits), while
+ * fewer samples are cheaper for hot resources.</p>
+ *
+ * @see ResourceWindowConfigManager
+ */
+public class ResourceWindowConfig {
+
+    private String resource;
+    /**
+     * Count of buckets in the interval.
+     */
+    private int sampleCount;
+    /**
+     * Total time length of the sliding window in seconds.
+     */
+    private int intervalInSec = 1;
+
+    public ResourceWindowConfig() {}
+
+    public ResourceWindowConfig(String resource, int sampleCount, int intervalInSec) {
+        this.resource = resource;
+        this.sampleCount = sampleCount;
+        this.intervalInSec = intervalInSec;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public ResourceWindowConfig setResource(String resource) {
+        this.resource = resource;
+        return this;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public ResourceWindowConfig setSampleCount(int sampleCount) {
+        this.sampleCount = sampleCount;
+        return this;
+    }
+
+    public int getIntervalInSec() {
+        return intervalInSec;
+    }
+
+    public ResourceWindowConfig setIntervalInSec(int intervalInSec) {
+        this.intervalInSec = intervalInSec;
+        return this;
+    }
+
+    /**
+     * The config is valid only when the interval can be divided into buckets of whole milliseconds.
+     *
+     * @return true if the config is valid
+     */
+    public boolean isValid() {
+        return resource != null && sampleCount > 0 && intervalInSec > 0
+            && (intervalInSec * 1000) % sampleCount == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResourceWindowConfig)) {
+            return false;
+        }
+
+        ResourceWindowConfig that = (ResourceWindowConfig)o;
+
+        if (sampleCount != that.sampleCount) {
+            return false;
+        }
+        if (intervalInSec != that.intervalInSec) {
+            return false;
+        }
+        return resource != null ? resource.equals(that.resource) : that.resource == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = resource != null ? resource.hashCode() : 0;
+        result = 31 * result + sampleCount;
+        result = 31 * result + intervalInSec;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceWindowConfig{" +
+            "resource='" + resource + '\'' +
+            ", sampleCount=" + sampleCount +
+            ", intervalInSec=" + intervalInSec +
+            '}';
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
+import com.alibaba.csp.sentinel.property.PropertyListener;
+import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+/**
+ * <p>
+ * Manages {@link ResourceWindowConfig}s. Nodes of a resource are created with the layout of its config,
+ * and when the config of a resource changes, second-level statistics of all existing nodes of the resource
+ * (the cluster node, origin nodes and default nodes) are reset to the new layout.
+ * </p>
+ */
+public class ResourceWindowConfigManager {
+
+    private static volatile Map<String, ResourceWindowConfig> windowConfigs
+        = new HashMap<String, ResourceWindowConfig>();
+
+    private static final WindowConfigPropertyListener listener = new WindowConfigPropertyListener();
+
+    private static SentinelProperty<List<ResourceWindowConfig>> currentProperty
+        = new DynamicSentinelProperty<List<ResourceWindowConfig>>();
+
+    static {
+        currentProperty.addListener(listener);
+    }
+
+    public static void register2Property(SentinelProperty<List<ResourceWindowConfig>> property) {
+        synchronized (listener) {
+            if (currentProperty != null) {
+                currentProperty.removeListener(listener);
+            }
+            property.addListener(listener);
+            currentProperty = property;
+        }
+    }
+
+    public static void loadConfigs(List<ResourceWindowConfig> configs) {
+        currentProperty.updateValue(configs);
+    }
+
+    /**
+     * Get a copy of the configs.
+     *
+     * @return a new copy of the configs
+     */
+    public static List<ResourceWindowConfig> getConfigs() {
+        return new ArrayList<ResourceWindowConfig>(windowConfigs.values());
+    }
+
+    public static ResourceWindowConfig getConfig(String resource) {
+        return windowConfigs.get(resource);
+    }
+
+    /**
+     * Build a tree node of the resource with the window layout of provided config. Builders other than
+     * {@link DefaultNodeBuilder} don't know about window configs, so the node they build is reset to the config.
+     *
+     * @param builder      node builder
+     * @param id           resource of the node
+     * @param windowConfig window config of the resource, null to follow the global properties
+     * @return new tree node
+     */
+    public static DefaultNode buildTreeNode(NodeBuilder builder, ResourceWrapper id,
+                                            ResourceWindowConfig windowConfig) {
+        if (builder instanceof DefaultNodeBuilder) {
+            return ((DefaultNodeBuilder)builder).buildTreeNode(id, null, windowConfig);
+        }
+        DefaultNode node = builder.buildTreeNode(id, null);
+        if (windowConfig != null) {
+            resetNode(node, windowConfig);
+        }
+        return node;
+    }
+
+    /**
+     * Build a cluster node with the window layout of provided config, see
+     * {@link #buildTreeNode(NodeBuilder, ResourceWrapper, ResourceWindowConfig)}.
+     *
+     * @param builder      node builder
+     * @param windowConfig window config of the resource, null to follow the global properties
+     * @return new cluster node
+     */
+    public static ClusterNode buildClusterNode(NodeBuilder builder, ResourceWindowConfig windowConfig) {
+        if (builder instanceof DefaultNodeBuilder) {
+            return ((DefaultNodeBuilder)builder).buildClusterNode(windowConfig);
+        }
+        ClusterNode node = builder.buildClusterNode();
+        if (windowConfig != null) {
+            resetNode(node, windowConfig);
+        }
+        return node;
+    }
+
+    /**
+     * Make sure a newly published node follows the current config of the resource. The node is built with
+     * the {@code resolved} config, if the config has been updated since then, the update may have missed
+     * the node before it was published, so the node is reset to the current config.
+     *
+     * @param resource resource name
+     * @param resolved config the node was built with, may be null
+     * @param node     node of the resource, which has been published
+     */
+    public static void ensureLatest(String resource, ResourceWindowConfig resolved, StatisticNode node) {
+        ResourceWindowConfig current = windowConfigs.get(resource);
+        if (current == null ? resolved != null : !current.equals(resolved)) {
+            resetNode(node, current);
+        }
+    }
+
+    private static Map<String, ResourceWindowConfig> buildConfigMap(List<ResourceWindowConfig> list) {
+        Map<String, ResourceWindowConfig> newMap = new HashMap<String, ResourceWindowConfig>();
+        if (list == null) {
+            return newMap;
+        }
+        for (ResourceWindowConfig config : list) {
+            if (config == null || !config.isValid()) {
+                RecordLog.info("Ignoring invalid window config: " + config);
+                continue;
+            }
+            newMap.put(config.getResource(), config);
+        }
+        return newMap;
+    }
+
+    private static synchronized void updateConfigs(List<ResourceWindowConfig> list) {
+        Map<String, ResourceWindowConfig> oldMap = windowConfigs;
+        Map<String, ResourceWindowConfig> newMap = buildConfigMap(list);
+        windowConfigs = newMap;
+
+        Set<String> changed = new HashSet<String>();
+        for (Map.Entry<String, ResourceWindowConfig> e : newMap.entrySet()) {
+            if (!e.getValue().equals(oldMap.get(e.getKey()))) {
+                changed.add(e.getKey());
+            }
+        }
+        for (String resource : oldMap.keySet()) {
+            if (!newMap.containsKey(resource)) {
+                changed.add(resource);
+            }
+        }
+        if (!changed.isEmpty()) {
+            resetNodes(changed, newMap);
+        }
+    }
+
+    private static void resetNodes(Set<String> resources, Map<String, ResourceWindowConfig> configs) {
+        for (Map.Entry<ResourceWrapper, ClusterNode> e : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
+            String resource = e.getKey().getName();
+            if (resources.contains(resource)) {
+                resetNode(e.getValue(), configs.get(resource));
+            }
+        }
+        resetTreeNodes(Constants.ROOT, resources, configs, new IdentityHashMap<Node, Boolean>());
+    }
+
+    private static void resetTreeNodes(DefaultNode parent, Set<String> resources,
+                                       Map<String, ResourceWindowConfig> configs,
+                                       IdentityHashMap<Node, Boolean> visited) {
+        if (visited.put(parent, Boolean.TRUE) != null) {
+            return;
+        }
+        for (Node child : parent.getChildList()) {
+            if (!(child instanceof DefaultNode)) {
+                continue;
+            }
+            DefaultNode node = (DefaultNode)child;
+            String resource = node.getId().getName();
+            if (resources.contains(resource)) {
+                resetNode(node, configs.get(resource));
+            }
+            resetTreeNodes(node, resources, configs, visited);
+        }
+    }
+
+    private static void resetNode(StatisticNode node, ResourceWindowConfig config) {
+        if (config == null) {
+            // Config removed, follow the global properties again.
+            node.resetWindow(0, 0);
+        } else {
+            node.resetWindow(config.getSampleCount(), config.getIntervalInSec());
+        }
+    }
+
+    private static final class WindowConfigPropertyListener implements PropertyListener<List<ResourceWindowConfig>> {
+
+        @Override
+        public void configUpdate(List<ResourceWindowConfig> value) {
+            updateConfigs(value);
+            RecordLog.info("Receive window config: " + windowConfigs);
+        }
+
+        @Override
+        public void configLoad(List<ResourceWindowConfig> value) {
+            updateConfigs(value);
+            RecordLog.info("Load window config: " + windowConfigs);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * Switches of RT statistics.
+ */
+public class RtProperty {
+
+    /**
+     * Whether to measure RT by {@link TimeUtil#nanoTime()} rather than the millisecond clock,
+     * so RT less than one millisecond can be recorded.
+     */
+    public static volatile boolean nanoTime = false;
+
+    /**
+     * Whether to record RT histogram in second-level statistics, so RT percentiles are available.
+     * Disabled by default: every window of every node then holds a histogram, which is allocated again on
+     * each window rotation.
+     */
+    public static volatile boolean histogram = false;
+
+    static {
+        nanoTime = Boolean.parseBoolean(SentinelConfig.getConfig(SentinelConfig.STATISTIC_RT_NANO));
+        histogram = Boolean.parseBoolean(SentinelConfig.getConfig(SentinelConfig.STATISTIC_RT_HISTOGRAM));
+    }
+}
@@ -19,11 +19,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.base.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
-import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
 
 /**
  * @author qinan.qn
@@ -31,21 +32,66 @@ import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
  */
 public class StatisticNode implements Node {
 
-    private transient Metric rollingCounterInSecond = new ArrayMetric(1000 / SampleCountProperty.sampleCount,
-        IntervalProperty.INTERVAL);
+    /**
+     * Layout of the second-level window, non-positive means following {@link SampleCountProperty#sampleCount}
+     * and {@link IntervalProperty#INTERVAL}.
+     */
+    private volatile int sampleCount;
+    private volatile int intervalInSec;
 
-    private transient Metric rollingCounterInMinute = new ArrayMetric(1000, 2 * 60);
+    private transient volatile ArrayMetric rollingCounterInSecond;
+
+    private static final AtomicReferenceFieldUpdater<StatisticNode, ArrayMetric> MINUTE_COUNTER_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(StatisticNode.class, ArrayMetric.class, "rollingCounterInMinute");
+
+    /**
+     * Minute-level statistics, created on the first write and reclaimed by {@link #reclaimIdleMinuteCounter()}
+     * when there has been no data for the whole interval. Null means no data in the last minutes.
+     */
+    private transient volatile ArrayMetric rollingCounterInMinute;
 
     private AtomicInteger curThreadNum = new AtomicInteger(0);
 
     private long lastFetchTime = -1;
 
+    static {
+        NodeSweepScheduler.start();
+    }
+
+    public StatisticNode() {
+        this(0, 0);
+    }
+
+    /**
+     * @param sampleCount   count of buckets of second-level statistics in the interval
+     * @param intervalInSec time length of second-level statistics, non-positive values follow the global properties
+     */
+    public StatisticNode(int sampleCount, int intervalInSec) {
+        this.sampleCount = sampleCount;
+        this.intervalInSec = intervalInSec;
+        this.rollingCounterInSecond = newSecondCounter();
+    }
+
+    private ArrayMetric newSecondCounter() {
+        int sampleCount = this.sampleCount;
+        int intervalInSec = this.intervalInSec;
+        if (sampleCount <= 0 || intervalInSec <= 0) {
+            return new ArrayMetric(1000 / SampleCountProperty.sampleCount, IntervalProperty.INTERVAL,
+                RtProperty.histogram);
+        }
+        return new ArrayMetric(intervalInSec * 1000 / sampleCount, intervalInSec, RtProperty.histogram);
+    }
+
     @Override
     public Map<Long, MetricNode> metrics() {
         long currentTime = TimeUtil.currentTimeMillis();
         currentTime = currentTime - currentTime % 1000;
         Map<Long, MetricNode> metrics = new ConcurrentHashMap<Long, MetricNode>();
-        List<MetricNode> minutes = rollingCounterInMinute.details();
+        ArrayMetric minuteCounter = rollingCounterInMinute;
+        if (minuteCounter == null) {
+            return metrics;
+        }
+        List<MetricNode> minutes = minuteCounter.details();
         for (MetricNode node : minutes) {
             if (node.getTimestamp() > lastFetchTime && node.getTimestamp() < currentTime) {
                 if (node.getPassedQps() != 0 || node.getBlockedQps() != 0) {
@@ -58,35 +104,132 @@ public class StatisticNode implements Node {
         return metrics;
     }
 
+    /**
+     * Take all statistics of the node in one pass, the values are consistent with each other.
+     *
+     * @return point-in-time statistics of the node
+     */
+    public NodeSnapshot snapshot() {
+        ArrayMetric minuteCounter = rollingCounterInMinute;
+        return new NodeSnapshot(TimeUtil.currentTimeMillis(), curThreadNum.get(), rollingCounterInSecond.snapshot(),
+            minuteCounter == null ? null : minuteCounter.snapshot());
+    }
+
     @Override
     public void reset() {
-        rollingCounterInSecond = new ArrayMetric(1000 / SampleCountProperty.sampleCount, IntervalProperty.INTERVAL);
+        rollingCounterInSecond = newSecondCounter();
+    }
+
+    /**
+     * Change the layout of second-level statistics, then reset them.
+     *
+     * @param sampleCount   count of buckets in the interval
+     * @param intervalInSec time length of the sliding window, non-positive values follow the global properties
+     */
+    public void resetWindow(int sampleCount, int intervalInSec) {
+        this.sampleCount = sampleCount;
+        this.intervalInSec = intervalInSec;
+        reset();
+    }
+
+    /**
+     * Drop the minute-level statistics if there is no data in the whole interval, so cold nodes don't hold
+     * the 120 buckets. They will be created again on the next write.
+     *
+     * @return true if the minute-level statistics are reclaimed
+     */
+    public boolean reclaimIdleMinuteCounter() {
+        ArrayMetric counter = rollingCounterInMinute;
+        if (counter == null || !counter.isEmpty()) {
+            return false;
+        }
+        return MINUTE_COUNTER_UPDATER.compareAndSet(this, counter, null);
+    }
+
+    /**
+     * Whether the node has neither running threads nor any data in the minute-level statistics.
+     */
+    boolean isIdle() {
+        if (curThreadNum.get() > 0) {
+            return false;
+        }
+        ArrayMetric counter = rollingCounterInMinute;
+        return counter == null || counter.isEmpty();
+    }
+
+    boolean hasMinuteCounter() {
+        return rollingCounterInMinute != null;
+    }
+
+    private ArrayMetric minuteCounter() {
+        while (true) {
+            ArrayMetric counter = rollingCounterInMinute;
+            if (counter != null) {
+                return counter;
+            }
+            counter = new ArrayMetric(1000, 2 * 60);
+            if (MINUTE_COUNTER_UPDATER.compareAndSet(this, null, counter)) {
+                return counter;
+            }
+        }
+    }
+
+    /**
+     * Whether the minute-level statistics written just now has been reclaimed concurrently. If so, the write
+     * went to the dropped counter and should be done again.
+     */
+    private boolean minuteCounterReclaimed(ArrayMetric written) {
+        return rollingCounterInMinute != written;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getIntervalInSec() {
+        return intervalInSec;
+    }
+
+    /**
+     * Convert a count of the whole sliding window to per second. The layout is read from the metric itself,
+     * so the count and the divisor always match even if the window is being reset.
+     */
+    private static long perSecond(ArrayMetric metric, long count) {
+        return count * 1000 / metric.getIntervalInMs();
     }
 
     @Override
     public long totalRequest() {
-        long totalRequest = rollingCounterInMinute.pass() + rollingCounterInMinute.block();
+        ArrayMetric minuteCounter = rollingCounterInMinute;
+        if (minuteCounter == null) {
+            return 0;
+        }
+        long totalRequest = minuteCounter.pass() + minuteCounter.block();
         return totalRequest / 2;
     }
 
     @Override
     public long blockedRequest() {
-        return rollingCounterInMinute.block() / 2;
+        ArrayMetric minuteCounter = rollingCounterInMinute;
+        return minuteCounter == null ? 0 : minuteCounter.block() / 2;
     }
 
     @Override
     public long blockedQps() {
-        return rollingCounterInSecond.block() / IntervalProperty.INTERVAL;
+        ArrayMetric metric = rollingCounterInSecond;
+        return perSecond(metric, metric.block());
     }
 
     @Override
     public long previousBlockQps() {
-        return this.rollingCounterInMinute.previousWindowBlock();
+        ArrayMetric minuteCounter = rollingCounterInMinute;
+        return minuteCounter == null ? 0 : minuteCounter.previousWindowBlock();
     }
 
     @Override
     public long previousPassQps() {
-        return this.rollingCounterInMinute.previousWindowPass();
+        ArrayMetric minuteCounter = rollingCounterInMinute;
+        return minuteCounter == null ? 0 : minuteCounter.previousWindowPass();
     }
 
     @Override
@@ -96,32 +239,38 @@ public class StatisticNode implements Node {
 
     @Override
     public long totalSuccess() {
-        return rollingCounterInMinute.success() / 2;
+        ArrayMetric minuteCounter = rollingCounterInMinute;
+        return minuteCounter == null ? 0 : minuteCounter.success() / 2;
     }
 
     @Override
     public long exceptionQps() {
-        return rollingCounterInSecond.exception() / IntervalProperty.INTERVAL;
+        ArrayMetric metric = rollingCounterInSecond;
+        return perSecond(metric, metric.exception());
     }
 
     @Override
     public long totalException() {
-        return rollingCounterInMinute.exception() / 2;
+        ArrayMetric minuteCounter = rollingCounterInMinute;
+        return minuteCounter == null ? 0 : minuteCounter.exception() / 2;
     }
 
     @Override
     public long passQps() {
-        return rollingCounterInSecond.pass() / IntervalProperty.INTERVAL;
+        ArrayMetric metric = rollingCounterInSecond;
+        return perSecond(metric, metric.pass());
     }
 
     @Override
     public long successQps() {
-        return rollingCounterInSecond.success() / IntervalProperty.INTERVAL;
+        ArrayMetric metric = rollingCounterInSecond;
+        return perSecond(metric, metric.success());
     }
 
     @Override
     public long maxSuccessQps() {
-        return rollingCounterInSecond.maxSuccess() * SampleCountProperty.sampleCount;
+        ArrayMetric metric = rollingCounterInSecond;
+        return perSecond(metric, metric.maxSuccess() * metric.getSampleCount());
     }
 
     @Override
@@ -134,11 +283,61 @@ public class StatisticNode implements Node {
         return rollingCounterInSecond.rt() / successCount;
     }
 
+    /**
+     * Average RT in microseconds in the last second, 0 if no RT recorded.
+     */
+    public long avgRtMicros() {
+        long successCount = rollingCounterInSecond.success();
+        if (successCount == 0) {
+            return 0;
+        }
+
+        return rollingCounterInSecond.rtMicros() / successCount;
+    }
+
     @Override
     public long minRt() {
         return rollingCounterInSecond.minRt();
     }
 
+    /**
+     * Get the min RT in the last second.
+     *
+     * @return min RT in microseconds, {@code 4900000} if no RT recorded
+     */
+    public long minRtMicros() {
+        return rollingCounterInSecond.minRtMicros();
+    }
+
+    /**
+     * Get the max RT in the last second.
+     *
+     * @return max RT in milliseconds, 0 if no RT recorded
+     */
+    public long maxRt() {
+        return rollingCounterInSecond.maxRtMicros() / 1000;
+    }
+
+    /**
+     * Get the max RT in the last second.
+     *
+     * @return max RT in microseconds, 0 if no RT recorded
+     */
+    public long maxRtMicros() {
+        return rollingCounterInSecond.maxRtMicros();
+    }
+
+    /**
+     * Get RT at provided percentile in the last second. Only available when RT histogram is enabled,
+     * see {@link RtProperty#histogram}.
+     *
+     * @param percentile percentile in (0, 1], eg. 0.99 for p99 and 1 for the max RT
+     * @return RT at provided percentile in milliseconds, 0 if no RT recorded
+     */
+    public double rtPercentile(double percentile) {
+        return rollingCounterInSecond.rtPercentile(percentile) / 1000.0;
+    }
+
     @Override
     public int curThreadNum() {
         return curThreadNum.get();
@@ -146,30 +345,113 @@ public class StatisticNode implements Node {
 
     @Override
     public void addPassRequest() {
-        rollingCounterInSecond.addPass();
-        rollingCounterInMinute.addPass();
+        addPassRequest(1);
+    }
+
+    /**
+     * Add pass count of an invocation which acquires multiple tokens.
+     *
+     * @param count pass count to add
+     */
+    public void addPassRequest(int count) {
+        addPassRequest(count, TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Same as {@link #addPassRequest(int)}, but counted in the window at provided time. Callers updating
+     * several nodes for one invocation read the clock once and pass the same time to all of them.
+     *
+     * @param count pass count to add
+     * @param time  current timestamp in milliseconds
+     */
+    public void addPassRequest(int count, long time) {
+        add(MetricEvent.PASS, count, time);
     }
 
     @Override
     public void rt(long rt) {
-        rollingCounterInSecond.addSuccess();
-        rollingCounterInSecond.addRT(rt);
+        addRtMicros(rt * 1000);
+    }
 
-        rollingCounterInMinute.addSuccess();
-        rollingCounterInMinute.addRT(rt);
+    /**
+     * Add RT in microseconds, and increase success count.
+     *
+     * @param rtMicros RT in microseconds
+     */
+    public void addRtMicros(long rtMicros) {
+        addRtMicros(rtMicros, 1, TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Add RT in microseconds and increase success count by provided count, counted in the window
+     * at provided time. Every token of the batch is counted as a sample of the RT.
+     *
+     * @param rtMicros RT in microseconds
+     * @param count    success count to add
+     * @param time     current timestamp in milliseconds
+     */
+    public void addRtMicros(long rtMicros, int count, long time) {
+        rollingCounterInSecond.addRtAndSuccess(rtMicros, count, time);
+
+        ArrayMetric minuteCounter;
+        do {
+            minuteCounter = minuteCounter();
+            minuteCounter.addRtAndSuccess(rtMicros, count, time);
+        } while (minuteCounterReclaimed(minuteCounter));
     }
 
     @Override
     public void increaseBlockedQps() {
-        rollingCounterInSecond.addBlock();
-        rollingCounterInMinute.addBlock();
+        increaseBlockedQps(1);
+    }
+
+    /**
+     * @param count block count to add
+     */
+    public void increaseBlockedQps(int count) {
+        increaseBlockedQps(count, TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Same as {@link #increaseBlockedQps(int)}, but counted in the window at provided time.
+     *
+     * @param count block count to add
+     * @param time  current timestamp in milliseconds
+     */
+    public void increaseBlockedQps(int count, long time) {
+        add(MetricEvent.BLOCK, count, time);
     }
 
     @Override
     public void increaseExceptionQps() {
-        rollingCounterInSecond.addException();
-        rollingCounterInMinute.addException();
+        increaseExceptionQps(1);
+    }
+
+    /**
+     * @param count exception count to add
+     */
+    public void increaseExceptionQps(int count) {
+        increaseExceptionQps(count, TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Same as {@link #increaseExceptionQps(int)}, but counted in the window at provided time.
+     *
+     * @param count exception count to add
+     * @param time  current timestamp in milliseconds
+     */
+    public void increaseExceptionQps(int count, long time) {
+        add(MetricEvent.EXCEPTION, count, time);
+    }
+
+    private void add(MetricEvent event, int count, long time) {
+        rollingCounterInSecond.add(event, count, time);
 
+        ArrayMetric minuteCounter;
+        do {
+            minuteCounter = minuteCounter();
+            minuteCounter.add(event, count, time);
+        } while (minuteCounterReclaimed(minuteCounter));
     }
 
     @Override
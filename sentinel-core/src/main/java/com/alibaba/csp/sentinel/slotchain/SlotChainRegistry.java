@@ -0,0 +1,309 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Env;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.EvictionStatistics;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * Registry of {@link ProcessorSlotChain}s. Same resource({@link ResourceWrapper#equals(Object)}) will share
+ * the same {@link ProcessorSlotChain} globally.
+ *
+ * <p>Lookups of existing chains never lock. A new chain is created under one of the striped locks,
+ * so only threads creating the same resource (or resources in the same stripe) wait for each other.</p>
+ *
+ * <p>Total chain count is limited by {@code maxSize}. When the limit is reached, chains whose
+ * resource has been idle longer than {@code idleEvictMs} (and has no running thread) are evicted
+ * together with their {@link ClusterNode}s. If no chain could be evicted, null will return and
+ * the resource will pass with no rule checking. Chains bound by {@link #lookupAndPin(ResourceWrapper)}
+ * are never evicted.</p>
+ *
+ * <p>A chain is retired (and its {@link ClusterNode} removed) under the lock of its stripe, by a CAS on the access
+ * time of its holder, so a lookup touching the holder at the same time either keeps it alive or sees it retired
+ * and creates a new chain. Pinning also happens under the lock, so a pinned chain is never retired.</p>
+ */
+public class SlotChainRegistry {
+
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Access time of a chain will only be updated when it's older than this, so lookups
+     * of a hot resource won't write the shared holder every time.
+     */
+    private static final long ACCESS_TIME_PRECISION_MS = 1000;
+
+    /**
+     * Idle eviction scans the whole registry, so don't scan again within this period when
+     * the last scan evicted nothing.
+     */
+    private static final long EVICT_SCAN_INTERVAL_MS = 1000;
+
+    private final ConcurrentHashMap<ResourceWrapper, ChainHolder> chainMap
+        = new ConcurrentHashMap<ResourceWrapper, ChainHolder>();
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Object evictLock = new Object();
+
+    private final int maxSize;
+    private final long idleEvictMs;
+
+    private volatile long lastFailedScanTime = 0;
+
+    public SlotChainRegistry(int maxSize, long idleEvictMs) {
+        this.maxSize = maxSize;
+        this.idleEvictMs = idleEvictMs;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Get {@link ProcessorSlotChain} of the resource, new {@link ProcessorSlotChain} will
+     * be created if the resource doesn't relate one.
+     *
+     * @param resourceWrapper target resource
+     * @return {@link ProcessorSlotChain} of the resource, or null if the registry is full
+     */
+    public ProcessorSlotChain lookup(ResourceWrapper resourceWrapper) {
+        return lookup(resourceWrapper, TimeUtil.currentTimeMillis());
+    }
+
+    ProcessorSlotChain lookup(ResourceWrapper resourceWrapper, long now) {
+        ChainHolder holder = getOrCreate(resourceWrapper, now, false);
+        return holder == null ? null : holder.chain;
+    }
+
+    /**
+     * Same as {@link #lookup(ResourceWrapper)}, but the chain will never be evicted. This is used
+     * when the chain is bound by the caller and won't be looked up again.
+     *
+     * @param resourceWrapper target resource
+     * @return {@link ProcessorSlotChain} of the resource, or null if the registry is full
+     */
+    public ProcessorSlotChain lookupAndPin(ResourceWrapper resourceWrapper) {
+        return lookupAndPin(resourceWrapper, TimeUtil.currentTimeMillis());
+    }
+
+    ProcessorSlotChain lookupAndPin(ResourceWrapper resourceWrapper, long now) {
+        ChainHolder holder = getOrCreate(resourceWrapper, now, true);
+        return holder == null ? null : holder.chain;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private ChainHolder getOrCreate(ResourceWrapper resourceWrapper, long now, boolean pin) {
+        ChainHolder holder = chainMap.get(resourceWrapper);
+        if (holder != null && (!pin || holder.pinned) && holder.touch(now)) {
+            return holder;
+        }
+        // Absent, retired or to be pinned.
+        ReentrantLock lock = lockOf(resourceWrapper);
+        lock.lock();
+        try {
+            // Holders are retired and removed under the lock, so the holder here is never retired.
+            holder = chainMap.get(resourceWrapper);
+            if (holder == null) {
+                if (!reserve(now)) {
+                    return null;
+                }
+                holder = new ChainHolder(Env.slotsChainbuilder.build(), now);
+                chainMap.put(resourceWrapper, holder);
+            } else {
+                holder.touch(now);
+            }
+            if (pin) {
+                holder.pinned = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return holder;
+    }
+
+    private ReentrantLock lockOf(ResourceWrapper resourceWrapper) {
+        int h = resourceWrapper.hashCode();
+        h ^= (h >>> 16);
+        return locks[h & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Reserve a place for a new chain, evict idle chains if the registry is full.
+     */
+    private boolean reserve(long now) {
+        while (true) {
+            int current = size.get();
+            if (current >= maxSize) {
+                if (!evictIdle(now)) {
+                    return false;
+                }
+                continue;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean evictIdle(long now) {
+        if (now - lastFailedScanTime < EVICT_SCAN_INTERVAL_MS) {
+            return false;
+        }
+        synchronized (evictLock) {
+            if (size.get() < maxSize) {
+                return true;
+            }
+            if (now - lastFailedScanTime < EVICT_SCAN_INTERVAL_MS) {
+                return false;
+            }
+            // Cluster nodes of the evicted resources, to tell their tree nodes from the ones of new chains.
+            Map<ResourceWrapper, ClusterNode> evicted = new HashMap<ResourceWrapper, ClusterNode>();
+            if (idleEvictMs > 0) {
+                for (Map.Entry<ResourceWrapper, ChainHolder> e : chainMap.entrySet()) {
+                    if (tryRetire(e.getKey(), e.getValue(), now, evicted)) {
+                        size.decrementAndGet();
+                    }
+                }
+            }
+            if (evicted.isEmpty()) {
+                lastFailedScanTime = now;
+                RecordLog.warn("[SlotChainRegistry] Slot chain size exceeds " + maxSize
+                    + " and no idle chain could be evicted, new resources will pass without rule checking");
+                return false;
+            }
+            removeFromTree(Constants.ROOT, evicted, new IdentityHashMap<Node, Boolean>());
+            EvictionStatistics.addEvictedResources(evicted.size());
+            RecordLog.info("[SlotChainRegistry] Evicted " + evicted.size() + " idle slot chains");
+            return true;
+        }
+    }
+
+    /**
+     * Retire the idle chain, and remove it and its cluster node from the registry. The stripe lock is only
+     * tried, a busy stripe means the resource may be in use, and waiting for it under {@link #evictLock} could
+     * deadlock. As a new chain of the resource is created under the same lock, it never shares the cluster node
+     * with the retired one.
+     */
+    private boolean tryRetire(ResourceWrapper resourceWrapper, ChainHolder holder, long now,
+                              Map<ResourceWrapper, ClusterNode> evicted) {
+        if (holder.pinned || now - holder.lastAccessTime < idleEvictMs) {
+            return false;
+        }
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resourceWrapper.getName());
+        if (clusterNode != null && clusterNode.curThreadNum() > 0) {
+            return false;
+        }
+        ReentrantLock lock = lockOf(resourceWrapper);
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (holder.pinned || !holder.retireIfIdle(now, idleEvictMs) || !chainMap.remove(resourceWrapper, holder)) {
+                return false;
+            }
+            evicted.put(resourceWrapper, ClusterBuilderSlot.getClusterNodeMap().get(resourceWrapper));
+            ClusterBuilderSlot.removeClusterNode(resourceWrapper);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void removeFromTree(DefaultNode parent, Map<ResourceWrapper, ClusterNode> evicted,
+                                       IdentityHashMap<Node, Boolean> visited) {
+        if (visited.put(parent, Boolean.TRUE) != null) {
+            return;
+        }
+        for (Node child : parent.getChildList()) {
+            if (!(child instanceof DefaultNode)) {
+                continue;
+            }
+            DefaultNode node = (DefaultNode)child;
+            if (evicted.containsKey(node.getId()) && node.getClusterNode() == evicted.get(node.getId())) {
+                parent.removeChild(node);
+                node.markRemoved();
+            } else {
+                removeFromTree(node, evicted, visited);
+            }
+        }
+    }
+
+    private static final class ChainHolder {
+
+        /**
+         * Access time of a retired holder.
+         */
+        static final long RETIRED = -1;
+
+        static final AtomicLongFieldUpdater<ChainHolder> ACCESS_TIME_UPDATER
+            = AtomicLongFieldUpdater.newUpdater(ChainHolder.class, "lastAccessTime");
+
+        final ProcessorSlotChain chain;
+        volatile long lastAccessTime;
+        /**
+         * Only set under the stripe lock.
+         */
+        volatile boolean pinned = false;
+
+        ChainHolder(ProcessorSlotChain chain, long now) {
+            this.chain = chain;
+            this.lastAccessTime = now;
+        }
+
+        /**
+         * @return false if the holder has been retired
+         */
+        boolean touch(long now) {
+            while (true) {
+                long time = lastAccessTime;
+                if (time == RETIRED) {
+                    return false;
+                }
+                if (now - time <= ACCESS_TIME_PRECISION_MS || ACCESS_TIME_UPDATER.compareAndSet(this, time, now)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Retire the holder if it's still idle, a concurrent {@link #touch(long)} makes it fail.
+         */
+        boolean retireIfIdle(long now, long idleMs) {
+            long time = lastAccessTime;
+            return time != RETIRED && now - time >= idleMs && ACCESS_TIME_UPDATER.compareAndSet(this, time, RETIRED);
+        }
+    }
+}
@@ -17,14 +17,11 @@ package com.alibaba.csp.sentinel.slots;
 
 import com.alibaba.csp.sentinel.slotchain.DefaultProcessorSlotChain;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
-import com.alibaba.csp.sentinel.slots.block.authority.AuthoritySlot;
-import com.alibaba.csp.sentinel.slots.block.degrade.DegradeSlot;
-import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckSlot;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import com.alibaba.csp.sentinel.slots.logger.LogSlot;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
 import com.alibaba.csp.sentinel.slots.statistic.StatisticSlot;
-import com.alibaba.csp.sentinel.slots.system.SystemSlot;
 
 /**
  * Helper class to create {@link ProcessorSlotChain}.
@@ -41,10 +38,8 @@ public class DefaultSlotsChainBuilder implements SlotsChainBuilder {
         chain.addLast(new ClusterBuilderSlot());
         chain.addLast(new LogSlot());
         chain.addLast(new StatisticSlot());
-        chain.addLast(new SystemSlot());
-        chain.addLast(new AuthoritySlot());
-        chain.addLast(new FlowSlot());
-        chain.addLast(new DegradeSlot());
+        // System, authority, flow and degrade slots are compiled per resource in the rule check slot.
+        chain.addLast(new RuleCheckSlot());
 
         return chain;
     }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.DefaultProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthoritySlot;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowSlot;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+import com.alibaba.csp.sentinel.slots.system.SystemSlot;
+
+/**
+ * <p>
+ * This slot does all {@link Rule}s checking of the resource. Instead of linking every rule slot
+ * ({@link SystemSlot}, {@link AuthoritySlot}, {@link FlowSlot}, {@link ParamFlowSlot}, {@link DegradeSlot})
+ * for every resource, only the slots whose rule manager has config for the resource are compiled into a sub chain.
+ * Resources without any rule pass this slot directly.
+ * </p>
+ * <p>
+ * Rule managers call {@link #onRulesUpdated()} after their rules change, then the sub chain will be
+ * compiled again on the next entry of the resource.
+ * </p>
+ */
+public class RuleCheckSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+
+    private static final AtomicLong ruleVersion = new AtomicLong(0);
+
+    private volatile CompiledChain compiled = null;
+
+    @Override
+    public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, Object... args)
+        throws Throwable {
+        CompiledChain current = compiled;
+        long version = ruleVersion.get();
+        if (current == null || current.version != version) {
+            // Version is read before compiling, so a compiled chain never looks newer than the rules it has seen.
+            current = new CompiledChain(version, compile(resourceWrapper));
+            compiled = current;
+        }
+        if (current.chain != null) {
+            current.chain.entry(context, resourceWrapper, node, count, args);
+        }
+        fireEntry(context, resourceWrapper, node, count, args);
+    }
+
+    @Override
+    public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+        fireExit(context, resourceWrapper, count, args);
+    }
+
+    /**
+     * Notify that rules of any rule manager have changed, so all compiled rule chains are stale.
+     */
+    public static void onRulesUpdated() {
+        ruleVersion.incrementAndGet();
+    }
+
+    static ProcessorSlotChain compile(ResourceWrapper resourceWrapper) {
+        String resource = resourceWrapper.getName();
+        ProcessorSlotChain chain = null;
+        if (SystemRuleManager.getCheckSystemStatus()) {
+            chain = addLast(chain, new SystemSlot());
+        }
+        if (AuthorityRuleManager.hasConfig(resource)) {
+            chain = addLast(chain, new AuthoritySlot());
+        }
+        if (FlowRuleManager.hasConfig(resource)) {
+            chain = addLast(chain, new FlowSlot());
+        }
+        if (ParamFlowRuleManager.hasConfig(resource)) {
+            chain = addLast(chain, new ParamFlowSlot());
+        }
+        if (DegradeRuleManager.hasConfig(resource)) {
+            chain = addLast(chain, new DegradeSlot());
+        }
+        return chain;
+    }
+
+    private static ProcessorSlotChain addLast(ProcessorSlotChain chain, AbstractLinkedProcessorSlot<?> slot) {
+        if (chain == null) {
+            chain = new DefaultProcessorSlotChain();
+        }
+        chain.addLast(slot);
+        return chain;
+    }
+
+    private static final class CompiledChain {
+        final long version;
+        final ProcessorSlotChain chain;
+
+        CompiledChain(long version, ProcessorSlotChain chain) {
+            this.version = version;
+            this.chain = chain;
+        }
+    }
+}
@@ -16,19 +16,23 @@
 package com.alibaba.csp.sentinel.slots.block.authority;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.ReservedOrigins;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckSlot;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 
 /***
@@ -114,6 +118,8 @@ public class AuthorityRuleManager {
             if (rules != null) {
                 authorityRules.putAll(rules);
             }
+            ReservedOrigins.update(ReservedOrigins.SOURCE_AUTHORITY_RULE, limitAppsOf(rules));
+            RuleCheckSlot.onRulesUpdated();
             RecordLog.info("receive authority config: " + authorityRules);
         }
 
@@ -140,6 +146,26 @@ public class AuthorityRuleManager {
             return newRuleMap;
         }
 
+        /**
+         * Apps listed in the comma separated limit app of the rules.
+         */
+        private Set<String> limitAppsOf(Map<String, List<AuthorityRule>> rules) {
+            Set<String> apps = new HashSet<String>();
+            if (rules == null) {
+                return apps;
+            }
+            for (List<AuthorityRule> ruleList : rules.values()) {
+                for (AuthorityRule rule : ruleList) {
+                    for (String app : rule.getLimitApp().split(",")) {
+                        if (!StringUtil.isBlank(app) && !FlowRule.LIMIT_APP_DEFAULT.equals(app)) {
+                            apps.add(app);
+                        }
+                    }
+                }
+            }
+            return apps;
+        }
+
         @Override
         public void configLoad(List<AuthorityRule> value) {
             Map<String, List<AuthorityRule>> rules = loadAuthorityConf(value);
@@ -148,6 +174,8 @@ public class AuthorityRuleManager {
             if (rules != null) {
                 authorityRules.putAll(rules);
             }
+            ReservedOrigins.update(ReservedOrigins.SOURCE_AUTHORITY_RULE, limitAppsOf(rules));
+            RuleCheckSlot.onRulesUpdated();
             RecordLog.info("load authority config: " + authorityRules);
         }
 
@@ -28,6 +28,7 @@ import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckSlot;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -122,6 +123,7 @@ public class DegradeRuleManager {
                 degradeRules.clear();
                 degradeRules.putAll(rules);
             }
+            RuleCheckSlot.onRulesUpdated();
             RecordLog.info("receive degrade config: " + degradeRules);
         }
 
@@ -132,6 +134,7 @@ public class DegradeRuleManager {
                 degradeRules.clear();
                 degradeRules.putAll(rules);
             }
+            RuleCheckSlot.onRulesUpdated();
             RecordLog.info("init degrade config: " + degradeRules);
         }
 
@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import com.alibaba.csp.sentinel.cluster.TokenService;
+
+/**
+ * Config of a {@link FlowRule} in cluster mode. The threshold ({@link FlowRule#getCount()}) is the global
+ * QPS of all instances, and tokens are requested from the token server by {@link #flowId}.
+ *
+ * @see TokenService
+ */
+public class ClusterFlowConfig {
+
+    /**
+     * Globally unique id of the rule, the same rule should have the same id in the token server and all clients.
+     */
+    private Long flowId;
+
+    /**
+     * Whether to check the rule locally when the token server fails, otherwise the request passes.
+     */
+    private boolean fallbackToLocalWhenFail = true;
+
+    /**
+     * Threshold of this instance when checking locally after the token server fails. If absent, the global
+     * threshold ({@link FlowRule#getCount()}) is checked by every instance, so up to N times of it may pass
+     * with N instances. It's suggested to set it to about {@code count / N}.
+     */
+    private Double fallbackCount;
+
+    public Long getFlowId() {
+        return flowId;
+    }
+
+    public ClusterFlowConfig setFlowId(Long flowId) {
+        this.flowId = flowId;
+        return this;
+    }
+
+    public boolean isFallbackToLocalWhenFail() {
+        return fallbackToLocalWhenFail;
+    }
+
+    public ClusterFlowConfig setFallbackToLocalWhenFail(boolean fallbackToLocalWhenFail) {
+        this.fallbackToLocalWhenFail = fallbackToLocalWhenFail;
+        return this;
+    }
+
+    public Double getFallbackCount() {
+        return fallbackCount;
+    }
+
+    public ClusterFlowConfig setFallbackCount(Double fallbackCount) {
+        this.fallbackCount = fallbackCount;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClusterFlowConfig)) {
+            return false;
+        }
+        ClusterFlowConfig that = (ClusterFlowConfig)o;
+        if (fallbackToLocalWhenFail != that.fallbackToLocalWhenFail) {
+            return false;
+        }
+        if (fallbackCount != null ? !fallbackCount.equals(that.fallbackCount) : that.fallbackCount != null) {
+            return false;
+        }
+        return flowId != null ? flowId.equals(that.flowId) : that.flowId == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = flowId != null ? flowId.hashCode() : 0;
+        result = 31 * result + (fallbackToLocalWhenFail ? 1 : 0);
+        result = 31 * result + (fallbackCount != null ? fallbackCount.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterFlowConfig{" +
+            "flowId=" + flowId +
+            ", fallbackToLocalWhenFail=" + fallbackToLocalWhenFail +
+            ", fallbackCount=" + fallbackCount +
+            '}';
+    }
+}
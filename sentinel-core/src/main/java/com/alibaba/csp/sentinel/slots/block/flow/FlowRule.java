@@ -15,6 +15,11 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow;
 
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.cluster.TokenClientProvider;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
@@ -34,6 +39,10 @@ import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
  *     <li>The {@link #controlBehavior} represents the QPS shaping behavior (actions on incoming request when QPS
  *     exceeds the threshold).</li>
  * </ul>
+ * <p>
+ *     In {@link #clusterMode}, the QPS threshold is shared by all instances and checked by the token server,
+ * see {@link ClusterFlowConfig}.
+ * </p>
  *
  * @author jialiang.linjl
  * @author Eric Zhao
@@ -64,7 +73,8 @@ public class FlowRule extends AbstractRule {
 
     /**
      * Rate limiter control behavior.
-     * 0. default, 1. warm up, 2. rate limiter
+     * 0. default, 1. warm up, 2. rate limiter, 3. warm up + rate limiter,
+     * 4. adaptive concurrency (thread grade only, the count is the max concurrency)
      */
     private int controlBehavior = RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
 
@@ -75,8 +85,27 @@ public class FlowRule extends AbstractRule {
      */
     private int maxQueueingTimeMs = 500;
 
+    /**
+     * In rate limiter behavior, reserve the pass time instead of blocking the caller until then.
+     * The caller should delay by itself, see {@link Entry#getWaitInMs()}.
+     */
+    private boolean nonBlocking = false;
+
     private Controller controller;
 
+    /**
+     * Whether the threshold is the global count of all instances, whose tokens are requested from the token server.
+     */
+    private boolean clusterMode = false;
+
+    private ClusterFlowConfig clusterConfig;
+
+    /**
+     * Controller of the per-instance fallback threshold in cluster mode,
+     * see {@link ClusterFlowConfig#getFallbackCount()}.
+     */
+    private Controller fallbackController;
+
     public int getControlBehavior() {
         return controlBehavior;
     }
@@ -95,11 +124,25 @@ public class FlowRule extends AbstractRule {
         return this;
     }
 
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    public FlowRule setNonBlocking(boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+        return this;
+    }
+
     public FlowRule setRater(Controller rater) {
         this.controller = rater;
         return this;
     }
 
+    FlowRule setFallbackRater(Controller fallbackRater) {
+        this.fallbackController = fallbackRater;
+        return this;
+    }
+
     public int getWarmUpPeriodSec() {
         return warmUpPeriodSec;
     }
@@ -109,6 +152,24 @@ public class FlowRule extends AbstractRule {
         return this;
     }
 
+    public boolean isClusterMode() {
+        return clusterMode;
+    }
+
+    public FlowRule setClusterMode(boolean clusterMode) {
+        this.clusterMode = clusterMode;
+        return this;
+    }
+
+    public ClusterFlowConfig getClusterConfig() {
+        return clusterConfig;
+    }
+
+    public FlowRule setClusterConfig(ClusterFlowConfig clusterConfig) {
+        this.clusterConfig = clusterConfig;
+        return this;
+    }
+
     public int getGrade() {
         return grade;
     }
@@ -158,9 +219,46 @@ public class FlowRule extends AbstractRule {
             return true;
         }
 
+        if (clusterMode && clusterConfig != null && clusterConfig.getFlowId() != null) {
+            return passClusterCheck(selectedNode, acquireCount);
+        }
+        if (nonBlocking && controller instanceof ReservingController) {
+            return passReserve(context, selectedNode, acquireCount);
+        }
         return controller.canPass(selectedNode, acquireCount);
     }
 
+    private boolean passReserve(Context context, Node selectedNode, int acquireCount) {
+        long passTime = ((ReservingController)controller).tryReserve(selectedNode, acquireCount);
+        if (passTime < 0) {
+            return false;
+        }
+        Entry entry = context.getCurEntry();
+        if (entry != null) {
+            entry.schedulePassAt(passTime);
+        }
+        return true;
+    }
+
+    private boolean passClusterCheck(Node selectedNode, int acquireCount) {
+        TokenService client = TokenClientProvider.getClient();
+        if (client != null) {
+            TokenResult result = client.requestToken(clusterConfig.getFlowId(), acquireCount);
+            if (result.getStatus() == TokenResultStatus.OK) {
+                return true;
+            }
+            if (result.getStatus() == TokenResultStatus.BLOCKED) {
+                return false;
+            }
+        }
+        // No token client, or the token server failed or has no such rule.
+        if (clusterConfig.isFallbackToLocalWhenFail()) {
+            Controller local = fallbackController != null ? fallbackController : controller;
+            return local.canPass(selectedNode, acquireCount);
+        }
+        return true;
+    }
+
     private Node selectNodeByRequesterAndStrategy(String origin, Context context, DefaultNode node) {
         // The limit app should not be empty.
         String limitApp = this.getLimitApp();
@@ -265,6 +363,15 @@ public class FlowRule extends AbstractRule {
         if (warmUpPeriodSec != flowRule.warmUpPeriodSec) {
             return false;
         }
+        if (nonBlocking != flowRule.nonBlocking) {
+            return false;
+        }
+        if (clusterMode != flowRule.clusterMode) {
+            return false;
+        }
+        if (clusterConfig != null ? !clusterConfig.equals(flowRule.clusterConfig) : flowRule.clusterConfig != null) {
+            return false;
+        }
 
         return true;
     }
@@ -281,6 +388,9 @@ public class FlowRule extends AbstractRule {
         result = 31 * result + (int)(temp ^ (temp >>> 32));
         result = 31 * result + warmUpPeriodSec;
         result = 31 * result + controlBehavior;
+        result = 31 * result + (nonBlocking ? 1 : 0);
+        result = 31 * result + (clusterMode ? 1 : 0);
+        result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
         return result;
     }
 
@@ -296,7 +406,10 @@ public class FlowRule extends AbstractRule {
             ", controlBehavior=" + controlBehavior +
             ", warmUpPeriodSec=" + warmUpPeriodSec +
             ", maxQueueingTimeMs=" + maxQueueingTimeMs +
+            ", nonBlocking=" + nonBlocking +
             ", controller=" + controller +
+            ", clusterMode=" + clusterMode +
+            ", clusterConfig=" + clusterConfig +
             "}";
     }
 }
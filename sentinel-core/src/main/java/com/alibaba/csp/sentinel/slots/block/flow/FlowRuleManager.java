@@ -16,8 +16,10 @@
 package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -28,16 +30,20 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.ReservedOrigins;
 import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckSlot;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.PaceController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpRateLimiterController;
 
 /**
  * <p>
@@ -55,6 +61,10 @@ import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
 public class FlowRuleManager {
 
     private static final Map<String, List<FlowRule>> flowRules = new ConcurrentHashMap<String, List<FlowRule>>();
+    /**
+     * Resources having rules of {@link RuleConstant#STRATEGY_CHAIN}, which need statistics of each context.
+     */
+    private static volatile Set<String> chainRuleResources = new HashSet<String>();
     private final static ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1,
         new NamedThreadFactory("sentinel-metrics-record-task", true));
     private final static FlowPropertyListener listener = new FlowPropertyListener();
@@ -126,8 +136,22 @@ public class FlowRuleManager {
                 && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER
                 && rule.getMaxQueueingTimeMs() > 0) {
                 rater = new PaceController(rule.getMaxQueueingTimeMs(), rule.getCount());
+            } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+                && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER
+                && rule.getWarmUpPeriodSec() > 0 && rule.getMaxQueueingTimeMs() > 0) {
+                rater = new WarmUpRateLimiterController(rule.getCount(), rule.getWarmUpPeriodSec(),
+                    rule.getMaxQueueingTimeMs(), ColdFactorProperty.coldFactor);
+            } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD
+                && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY) {
+                rater = new AdaptiveConcurrencyController(rule.getCount());
             }
             rule.setRater(rater);
+            ClusterFlowConfig clusterConfig = rule.getClusterConfig();
+            if (rule.isClusterMode() && clusterConfig != null && clusterConfig.getFallbackCount() != null) {
+                rule.setFallbackRater(new DefaultController(clusterConfig.getFallbackCount(), rule.getGrade()));
+            } else {
+                rule.setFallbackRater(null);
+            }
 
             String identity = rule.getResource();
             List<FlowRule> ruleM = newRuleMap.get(identity);
@@ -161,6 +185,46 @@ public class FlowRuleManager {
         return flowRules.containsKey(resource);
     }
 
+    /**
+     * Whether the resource has any rule of {@link RuleConstant#STRATEGY_CHAIN}.
+     *
+     * @param resource resource name
+     * @return true if the resource has chain rules
+     */
+    public static boolean hasChainRule(String resource) {
+        return chainRuleResources.contains(resource);
+    }
+
+    private static Set<String> chainRuleResourcesOf(Map<String, List<FlowRule>> rules) {
+        Set<String> resources = new HashSet<String>();
+        for (Map.Entry<String, List<FlowRule>> entry : rules.entrySet()) {
+            for (FlowRule rule : entry.getValue()) {
+                if (rule.getStrategy() == RuleConstant.STRATEGY_CHAIN) {
+                    resources.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Origins named by the limit app of the rules, except {@link FlowRule#LIMIT_APP_DEFAULT} and
+     * {@link FlowRule#LIMIT_APP_OTHER}.
+     */
+    private static Set<String> limitAppsOf(Map<String, List<FlowRule>> rules) {
+        Set<String> origins = new HashSet<String>();
+        for (List<FlowRule> ruleList : rules.values()) {
+            for (FlowRule rule : ruleList) {
+                String limitApp = rule.getLimitApp();
+                if (!FlowRule.LIMIT_APP_DEFAULT.equals(limitApp) && !FlowRule.LIMIT_APP_OTHER.equals(limitApp)) {
+                    origins.add(limitApp);
+                }
+            }
+        }
+        return origins;
+    }
+
     public static boolean isOtherOrigin(String origin, String resourceName) {
         if (StringUtil.isEmpty(origin)) {
             return false;
@@ -189,7 +253,10 @@ public class FlowRuleManager {
             if (rules != null) {
                 flowRules.clear();
                 flowRules.putAll(rules);
+                chainRuleResources = chainRuleResourcesOf(rules);
+                ReservedOrigins.update(ReservedOrigins.SOURCE_FLOW_RULE, limitAppsOf(rules));
             }
+            RuleCheckSlot.onRulesUpdated();
             RecordLog.info("receive flow config: " + flowRules);
         }
 
@@ -199,7 +266,10 @@ public class FlowRuleManager {
             if (rules != null) {
                 flowRules.clear();
                 flowRules.putAll(rules);
+                chainRuleResources = chainRuleResourcesOf(rules);
+                ReservedOrigins.update(ReservedOrigins.SOURCE_FLOW_RULE, limitAppsOf(rules));
             }
+            RuleCheckSlot.onRulesUpdated();
             RecordLog.info("load flow config: " + flowRules);
         }
 
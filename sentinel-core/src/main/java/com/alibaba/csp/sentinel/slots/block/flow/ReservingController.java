@@ -0,0 +1,37 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.node.Node;
+
+/**
+ * A {@link Controller} which queues requests by scheduling their pass time. Besides blocking the caller
+ * in {@link #canPass(Node, int)}, the pass time can be reserved without waiting, so async callers and
+ * schedulers can delay by themselves, see {@link FlowRule#isNonBlocking()} and {@link Entry#getWaitInMs()}.
+ */
+public interface ReservingController extends Controller {
+
+    /**
+     * Reserve a pass time for the request without waiting.
+     *
+     * @param node         the statistic node
+     * @param acquireCount count of tokens to acquire
+     * @return the scheduled pass time in milliseconds, which may be in the future,
+     * or -1 if the request can't pass within the max queueing time
+     */
+    long tryReserve(Node node, int acquireCount);
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.RtProperty;
+import com.alibaba.csp.sentinel.node.StatisticNode;
+import com.alibaba.csp.sentinel.slots.block.flow.Controller;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * Limits concurrency (thread count) by a limit computed from the observed RT, in the gradient style:
+ *
+ * <pre>
+ * gradient = clamp(RT_TOLERANCE * noLoadRt / avgRt, 0.5, 1.0)
+ * newLimit = limit * gradient + sqrt(limit)
+ * </pre>
+ *
+ * <p>{@code noLoadRt} is the lowest {@link StatisticNode#minRtMicros()} observed recently, which approximates the RT
+ * without queueing. While the average RT stays close to it, the gradient is 1 and the limit grows by
+ * {@code sqrt(limit)} (the tolerated queue size) each period. When requests begin to queue and the average RT
+ * rises, the gradient drops and the limit is cut. The limit only grows when the current concurrency actually
+ * uses it.</p>
+ *
+ * <p>The limit is updated at most once per {@link #UPDATE_INTERVAL_MS}, smoothed, and kept within
+ * {@code [1, maxLimit]}.</p>
+ *
+ * <p>RT is compared in microseconds, floored to the resolution of RT measurement: one millisecond by default,
+ * or one microsecond when {@link RtProperty#nanoTime} is enabled, which is recommended for resources
+ * responding in less than a millisecond.</p>
+ */
+public class AdaptiveConcurrencyController implements Controller {
+
+    public static final long UPDATE_INTERVAL_MS = 1000;
+
+    private static final int MIN_LIMIT = 1;
+    private static final int INITIAL_LIMIT = 20;
+    private static final double RT_TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    /**
+     * The no-load RT is observed again after this many updates, so it follows the change of the system.
+     */
+    private static final int NO_LOAD_RT_RESET_UPDATES = 60;
+
+    private final double maxLimit;
+
+    private volatile double limit;
+    /**
+     * No-load RT in microseconds.
+     */
+    private volatile long noLoadRt = Long.MAX_VALUE;
+    private int updatesSinceReset = 0;
+    private final AtomicLong lastUpdateTime = new AtomicLong(0);
+
+    /**
+     * @param maxLimit max concurrency, which is the count of the rule
+     */
+    public AdaptiveConcurrencyController(double maxLimit) {
+        this.maxLimit = Math.max(maxLimit, MIN_LIMIT);
+        this.limit = Math.min(this.maxLimit, INITIAL_LIMIT);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount) {
+        if (node == null) {
+            return true;
+        }
+        tryUpdate(node);
+        return node.curThreadNum() + acquireCount <= (int)limit;
+    }
+
+    private void tryUpdate(Node node) {
+        long now = TimeUtil.currentTimeMillis();
+        long last = lastUpdateTime.get();
+        if (now - last < UPDATE_INTERVAL_MS || !lastUpdateTime.compareAndSet(last, now)) {
+            return;
+        }
+        // Only one thread gets here in each period.
+        if (node instanceof StatisticNode) {
+            StatisticNode statisticNode = (StatisticNode)node;
+            update(node.successQps(), statisticNode.avgRtMicros(), statisticNode.minRtMicros(), node.curThreadNum());
+        } else {
+            update(node.successQps(), node.avgRt() * 1000, node.minRt() * 1000, node.curThreadNum());
+        }
+    }
+
+    private void update(long successQps, long avgRt, long minRt, int curThreadNum) {
+        if (successQps <= 0) {
+            // No completed request in the last period, nothing is learned.
+            return;
+        }
+        // RT shorter than the resolution can't be told apart.
+        long resolution = RtProperty.nanoTime ? 1 : 1000;
+        avgRt = Math.max(avgRt, resolution);
+        minRt = Math.max(minRt, resolution);
+        if (++updatesSinceReset >= NO_LOAD_RT_RESET_UPDATES) {
+            updatesSinceReset = 0;
+            noLoadRt = minRt;
+        } else if (minRt < noLoadRt) {
+            noLoadRt = minRt;
+        }
+
+        double current = limit;
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RT_TOLERANCE * noLoadRt / avgRt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        if (newLimit > current && curThreadNum < current / 2) {
+            // The limit is not the bottleneck now, so the RT says nothing about a higher limit.
+            return;
+        }
+        newLimit = current * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(MIN_LIMIT, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * Get the current concurrency limit.
+     */
+    public int getLimit() {
+        return (int)limit;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyController{" +
+            "maxLimit=" + maxLimit +
+            ", limit=" + limit +
+            ", noLoadRt=" + noLoadRt +
+            '}';
+    }
+}
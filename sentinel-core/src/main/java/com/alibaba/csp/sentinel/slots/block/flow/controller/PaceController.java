@@ -15,21 +15,21 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
-import java.util.concurrent.atomic.AtomicLong;
+import com.alibaba.csp.sentinel.slots.block.flow.ReservingController;
 
-import com.alibaba.csp.sentinel.slots.block.flow.Controller;
-
-import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.node.Node;
 
 /**
+ * Rate limiter which lets requests pass at an even interval ({@code 1 / count} seconds). Each request reserves
+ * the next pass time by CAS, and waits until then if it's within {@code maxQueueingTimeMs}.
+ *
  * @author jialiang.linjl
  */
-public class PaceController implements Controller {
+public class PaceController implements ReservingController {
 
     private final int maxQueueingTimeMs;
     private final double count;
-    private final AtomicLong latestPassedTime = new AtomicLong(-1);
+    private final Pacer pacer = new Pacer();
 
     public PaceController(int timeOut, double count) {
         this.maxQueueingTimeMs = timeOut;
@@ -38,40 +38,13 @@ public class PaceController implements Controller {
 
     @Override
     public boolean canPass(Node node, int acquireCount) {
+        return Pacer.waitUntil(tryReserve(node, acquireCount));
+    }
 
+    @Override
+    public long tryReserve(Node node, int acquireCount) {
         // 按照斜率来计算计划中应该什么时候通过
-        long currentTime = TimeUtil.currentTimeMillis();
-
         long costTime = Math.round(1.0 * (acquireCount) / count * 1000);
-
-        //期待时间
-        long expectedTime = costTime + latestPassedTime.get();
-
-        if (expectedTime <= currentTime) {
-            //这里会有冲突,然而冲突就冲突吧.
-            latestPassedTime.set(currentTime);
-            return true;
-        } else {
-            // 计算自己需要的等待时间
-            long waitTime = costTime + latestPassedTime.get() - TimeUtil.currentTimeMillis();
-            if (waitTime >= maxQueueingTimeMs) {
-                return false;
-            } else {
-                long oldTime = latestPassedTime.addAndGet(costTime);
-                try {
-                    waitTime = oldTime - TimeUtil.currentTimeMillis();
-                    if (waitTime >= maxQueueingTimeMs) {
-                        latestPassedTime.addAndGet(-costTime);
-                        return false;
-                    }
-                    Thread.sleep(waitTime);
-                    return true;
-                } catch (InterruptedException e) {
-                }
-            }
-        }
-
-        return false;
+        return pacer.reserve(costTime, maxQueueingTimeMs);
     }
-
 }
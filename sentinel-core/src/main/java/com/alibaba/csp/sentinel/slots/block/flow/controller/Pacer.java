@@ -0,0 +1,79 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * Schedules pass time of queueing requests one after another. Each request reserves its pass time by CAS,
+ * so concurrent requests never share a pass time.
+ */
+final class Pacer {
+
+    private final AtomicLong latestPassedTime = new AtomicLong(-1);
+
+    /**
+     * Reserve the pass time of a request.
+     *
+     * @param costTime          interval in milliseconds between the request and the previous one
+     * @param maxQueueingTimeMs max time the request can wait
+     * @return the reserved pass time, or -1 if the request would wait longer than {@code maxQueueingTimeMs}
+     */
+    long reserve(long costTime, int maxQueueingTimeMs) {
+        while (true) {
+            long currentTime = TimeUtil.currentTimeMillis();
+            long latest = latestPassedTime.get();
+            //期待时间
+            long expectedTime = costTime + latest;
+            if (expectedTime <= currentTime) {
+                if (latestPassedTime.compareAndSet(latest, currentTime)) {
+                    return currentTime;
+                }
+            } else {
+                if (expectedTime - currentTime >= maxQueueingTimeMs) {
+                    return -1;
+                }
+                if (latestPassedTime.compareAndSet(latest, expectedTime)) {
+                    return expectedTime;
+                }
+            }
+        }
+    }
+
+    /**
+     * Block the caller until the reserved pass time.
+     *
+     * @param passTime the reserved pass time, negative value means no time reserved
+     * @return true if the request can pass
+     */
+    static boolean waitUntil(long passTime) {
+        if (passTime < 0) {
+            return false;
+        }
+        long waitTime = passTime - TimeUtil.currentTimeMillis();
+        if (waitTime > 0) {
+            try {
+                Thread.sleep(waitTime);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.ReservingController;
+
+/**
+ * Combines {@link WarmUpController} and {@link PaceController}: requests pass at an even interval, and the
+ * interval follows the warm-up curve, that is from {@code coldFactor / count} seconds when the system is cold
+ * down to {@code 1 / count} seconds after warming up. The cold factor has the same meaning as in
+ * {@link WarmUpController}, and rules use {@code csp.sentinel.flow.cold.factor} by default.
+ */
+public class WarmUpRateLimiterController extends WarmUpController implements ReservingController {
+
+    private final int maxQueueingTimeMs;
+    private final Pacer pacer = new Pacer();
+
+    public WarmUpRateLimiterController(double count, int warmUpPeriodSec, int maxQueueingTimeMs, int coldFactor) {
+        super(count, warmUpPeriodSec, coldFactor);
+        this.maxQueueingTimeMs = maxQueueingTimeMs;
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount) {
+        return Pacer.waitUntil(tryReserve(node, acquireCount));
+    }
+
+    @Override
+    public long tryReserve(Node node, int acquireCount) {
+        syncToken(node.previousPassQps());
+        long costTime = Math.round(1.0 * acquireCount / currentQps() * 1000);
+        return pacer.reserve(costTime, maxQueueingTimeMs);
+    }
+
+    /**
+     * Get the permitted QPS on the warm-up curve according to the stored tokens.
+     */
+    double currentQps() {
+        long restToken = storedTokens.get();
+        if (restToken >= warningToken) {
+            long aboveToken = restToken - warningToken;
+            return Math.nextUp(1.0 / (aboveToken * slope + 1.0 / count));
+        }
+        return count;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slots.block.AbstractRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * Rule of hot parameter flow control: each distinct value of the argument at {@link #paramIdx} can pass
+ * at most {@link #count} times per second. Arguments are the {@code args} of {@code SphU.entry(...)}.
+ *
+ * <p>A negative {@link #paramIdx} counts from the end of the arguments, eg. -1 is the last argument.
+ * Invocations without the argument (or with null value) are not limited by the rule.</p>
+ */
+public class ParamFlowRule extends AbstractRule {
+
+    public ParamFlowRule() {
+        super();
+        setLimitApp(FlowRule.LIMIT_APP_DEFAULT);
+    }
+
+    public ParamFlowRule(String resourceName) {
+        this();
+        setResource(resourceName);
+    }
+
+    /**
+     * Index of the parameter in the arguments.
+     */
+    private Integer paramIdx;
+
+    /**
+     * Threshold (QPS) of each parameter value.
+     */
+    private double count;
+
+    private ParameterMetric metric;
+
+    public Integer getParamIdx() {
+        return paramIdx;
+    }
+
+    public ParamFlowRule setParamIdx(Integer paramIdx) {
+        this.paramIdx = paramIdx;
+        return this;
+    }
+
+    public double getCount() {
+        return count;
+    }
+
+    public ParamFlowRule setCount(double count) {
+        this.count = count;
+        return this;
+    }
+
+    ParamFlowRule setMetric(ParameterMetric metric) {
+        this.metric = metric;
+        return this;
+    }
+
+    ParameterMetric getMetric() {
+        return metric;
+    }
+
+    @Override
+    public boolean passCheck(Context context, DefaultNode node, int count, Object... args) {
+        Object value = paramOf(args);
+        if (value == null || metric == null) {
+            return true;
+        }
+        String limitApp = getLimitApp();
+        if (!FlowRule.LIMIT_APP_DEFAULT.equals(limitApp) && !limitApp.equals(context.getOrigin())) {
+            return true;
+        }
+        return metric.tryAcquire(value, count, this.count, TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Get the parameter value of the rule from the arguments.
+     *
+     * @return the parameter value, or null if absent
+     */
+    Object paramOf(Object[] args) {
+        if (args == null || paramIdx == null) {
+            return null;
+        }
+        int idx = paramIdx < 0 ? args.length + paramIdx : paramIdx;
+        if (idx < 0 || idx >= args.length) {
+            return null;
+        }
+        return args[idx];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ParamFlowRule)) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        ParamFlowRule rule = (ParamFlowRule)o;
+        if (Double.compare(rule.count, count) != 0) {
+            return false;
+        }
+        return paramIdx != null ? paramIdx.equals(rule.paramIdx) : rule.paramIdx == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        long temp = Double.doubleToLongBits(count);
+        result = 31 * result + (paramIdx != null ? paramIdx.hashCode() : 0);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ParamFlowRule{" +
+            "resource=" + getResource() +
+            ", limitApp=" + getLimitApp() +
+            ", paramIdx=" + paramIdx +
+            ", count=" + count +
+            '}';
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
+import com.alibaba.csp.sentinel.property.PropertyListener;
+import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * Manager of {@link ParamFlowRule}s. Counters of the parameter values are kept when the rules are loaded again,
+ * unless the rule itself changes.
+ */
+public class ParamFlowRuleManager {
+
+    private static volatile Map<String, List<ParamFlowRule>> paramFlowRules
+        = new HashMap<String, List<ParamFlowRule>>();
+
+    private final static RulePropertyListener listener = new RulePropertyListener();
+    private static SentinelProperty<List<ParamFlowRule>> currentProperty
+        = new DynamicSentinelProperty<List<ParamFlowRule>>();
+
+    static {
+        currentProperty.addListener(listener);
+    }
+
+    public static void register2Property(SentinelProperty<List<ParamFlowRule>> property) {
+        synchronized (listener) {
+            currentProperty.removeListener(listener);
+            property.addListener(listener);
+            currentProperty = property;
+        }
+    }
+
+    /**
+     * Load {@link ParamFlowRule}s, former rules will be replaced.
+     *
+     * @param rules new rules to load.
+     */
+    public static void loadRules(List<ParamFlowRule> rules) {
+        currentProperty.updateValue(rules);
+    }
+
+    /**
+     * Get a copy of the rules.
+     *
+     * @return a new copy of the rules.
+     */
+    public static List<ParamFlowRule> getRules() {
+        List<ParamFlowRule> rules = new ArrayList<ParamFlowRule>();
+        for (List<ParamFlowRule> list : paramFlowRules.values()) {
+            rules.addAll(list);
+        }
+        return rules;
+    }
+
+    public static boolean hasConfig(String resource) {
+        return paramFlowRules.containsKey(resource);
+    }
+
+    public static void checkParamFlow(ResourceWrapper resource, Context context, DefaultNode node, int count,
+                                      Object... args) throws ParamFlowException {
+        if (args == null || args.length == 0) {
+            return;
+        }
+        List<ParamFlowRule> rules = paramFlowRules.get(resource.getName());
+        if (rules == null) {
+            return;
+        }
+        for (ParamFlowRule rule : rules) {
+            if (!rule.passCheck(context, node, count, args)) {
+                throw new ParamFlowException(rule.getLimitApp(), String.valueOf(rule.paramOf(args)));
+            }
+        }
+    }
+
+    private static boolean isValidRule(ParamFlowRule rule) {
+        return rule != null && !StringUtil.isBlank(rule.getResource()) && rule.getParamIdx() != null
+            && rule.getCount() >= 0;
+    }
+
+    private static Map<String, List<ParamFlowRule>> loadParamFlowConf(List<ParamFlowRule> list) {
+        Map<String, List<ParamFlowRule>> newRuleMap = new HashMap<String, List<ParamFlowRule>>();
+        if (list == null) {
+            return newRuleMap;
+        }
+        Map<ParamFlowRule, ParameterMetric> oldMetrics = new HashMap<ParamFlowRule, ParameterMetric>();
+        for (List<ParamFlowRule> rules : paramFlowRules.values()) {
+            for (ParamFlowRule rule : rules) {
+                oldMetrics.put(rule, rule.getMetric());
+            }
+        }
+        int maxKeySize = SentinelConfig.maxParamFlowKeySize();
+        for (ParamFlowRule rule : list) {
+            if (!isValidRule(rule)) {
+                RecordLog.warn("[ParamFlowRuleManager] Ignoring invalid param flow rule: " + rule);
+                continue;
+            }
+            if (StringUtil.isBlank(rule.getLimitApp())) {
+                rule.setLimitApp(FlowRule.LIMIT_APP_DEFAULT);
+            }
+            ParameterMetric metric = oldMetrics.get(rule);
+            rule.setMetric(metric != null ? metric : new ParameterMetric(maxKeySize));
+
+            List<ParamFlowRule> ruleM = newRuleMap.get(rule.getResource());
+            if (ruleM == null) {
+                ruleM = new ArrayList<ParamFlowRule>();
+                newRuleMap.put(rule.getResource(), ruleM);
+            }
+            ruleM.add(rule);
+        }
+        return newRuleMap;
+    }
+
+    private static final class RulePropertyListener implements PropertyListener<List<ParamFlowRule>> {
+
+        @Override
+        public void configUpdate(List<ParamFlowRule> value) {
+            paramFlowRules = loadParamFlowConf(value);
+            RuleCheckSlot.onRulesUpdated();
+            RecordLog.info("receive param flow config: " + paramFlowRules);
+        }
+
+        @Override
+        public void configLoad(List<ParamFlowRule> value) {
+            paramFlowRules = loadParamFlowConf(value);
+            RuleCheckSlot.onRulesUpdated();
+            RecordLog.info("load param flow config: " + paramFlowRules);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets of the parameter values of one {@link ParamFlowRule}. Each value has a bucket of
+ * {@code count} tokens, refilled at {@code count} tokens per second.
+ *
+ * <p>Buckets are kept in LRU maps bounded by {@code maxSize} in total, so counting millions of distinct values
+ * never grows the heap without bound. The least recently used (that is the coldest) values are dropped first,
+ * and start with a full bucket when they come again. The maps are striped to reduce lock contention.</p>
+ */
+class ParameterMetric {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    ParameterMetric(int maxSize) {
+        int segmentSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Try to take tokens of the value.
+     *
+     * @param value        the parameter value
+     * @param acquireCount count of tokens to take
+     * @param count        threshold (QPS) of the value
+     * @param now          current time in milliseconds
+     * @return true if the tokens are taken
+     */
+    boolean tryAcquire(Object value, int acquireCount, double count, long now) {
+        Segment segment = segmentOf(value);
+        synchronized (segment) {
+            TokenBucket bucket = segment.get(value);
+            if (bucket == null) {
+                bucket = new TokenBucket(count, now);
+                segment.put(value, bucket);
+            }
+            return bucket.tryAcquire(acquireCount, count, now);
+        }
+    }
+
+    /**
+     * Get count of the values being counted.
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentOf(Object value) {
+        int h = value.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment extends LinkedHashMap<Object, TokenBucket> {
+
+        private final int maxSize;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, TokenBucket> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefillTime;
+
+        TokenBucket(double count, long now) {
+            this.tokens = count;
+            this.lastRefillTime = now;
+        }
+
+        boolean tryAcquire(int acquireCount, double count, long now) {
+            if (now > lastRefillTime) {
+                tokens = Math.min(count, tokens + (now - lastRefillTime) * count / 1000);
+                lastRefillTime = now;
+            }
+            if (tokens < acquireCount) {
+                return false;
+            }
+            tokens -= acquireCount;
+            return true;
+        }
+    }
+}
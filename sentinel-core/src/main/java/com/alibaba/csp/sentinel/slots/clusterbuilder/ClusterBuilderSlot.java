@@ -25,6 +25,9 @@ import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.NodeSnapshot;
+import com.alibaba.csp.sentinel.node.ResourceWindowConfig;
+import com.alibaba.csp.sentinel.node.ResourceWindowConfigManager;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
@@ -78,12 +81,16 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
             synchronized (lock) {
                 if (clusterNode == null) {
                     // Create the cluster node.
-                    clusterNode = Env.nodeBuilder.buildClusterNode();
+                    ResourceWindowConfig windowConfig = ResourceWindowConfigManager.getConfig(
+                        resourceWrapper.getName());
+                    ClusterNode newNode = ResourceWindowConfigManager.buildClusterNode(Env.nodeBuilder, windowConfig);
                     HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<ResourceWrapper, ClusterNode>(16);
                     newMap.putAll(clusterNodeMap);
-                    newMap.put(node.getId(), clusterNode);
+                    newMap.put(node.getId(), newNode);
 
                     clusterNodeMap = newMap;
+                    ResourceWindowConfigManager.ensureLatest(resourceWrapper.getName(), windowConfig, newNode);
+                    clusterNode = newNode;
                 }
             }
         }
@@ -139,6 +146,23 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
         return clusterNode;
     }
 
+    /**
+     * Remove {@link ClusterNode} of the resource. This is used when the {@link ProcessorSlotChain}
+     * of the resource is evicted, so the related cluster node will be created again by the new chain.
+     *
+     * @param resourceWrapper target resource
+     */
+    public static void removeClusterNode(ResourceWrapper resourceWrapper) {
+        synchronized (lock) {
+            if (!clusterNodeMap.containsKey(resourceWrapper)) {
+                return;
+            }
+            HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<ResourceWrapper, ClusterNode>(clusterNodeMap);
+            newMap.remove(resourceWrapper);
+            clusterNodeMap = newMap;
+        }
+    }
+
     /**
      * Get {@link ClusterNode}s map, this map holds all {@link ClusterNode}s, it's key is resource name,
      * value is the related {@link ClusterNode}. <br/>
@@ -150,4 +174,19 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
         return clusterNodeMap;
     }
 
+    /**
+     * Take {@link NodeSnapshot}s of all {@link ClusterNode}s, each node is traversed only once.
+     * This is meant for exporters which need all statistics of all resources.
+     *
+     * @return snapshots of all {@link ClusterNode}s, keyed by resource
+     */
+    public static Map<ResourceWrapper, NodeSnapshot> getClusterNodeSnapshots() {
+        Map<ResourceWrapper, ClusterNode> map = clusterNodeMap;
+        Map<ResourceWrapper, NodeSnapshot> snapshots = new HashMap<ResourceWrapper, NodeSnapshot>(map.size());
+        for (Map.Entry<ResourceWrapper, ClusterNode> e : map.entrySet()) {
+            snapshots.put(e.getKey(), e.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
 }
@@ -24,8 +24,15 @@ import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.FlatNode;
+import com.alibaba.csp.sentinel.node.FlatStatisticProperty;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.ResourceWindowConfig;
+import com.alibaba.csp.sentinel.node.ResourceWindowConfigManager;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 
 /**
  * </p>
@@ -119,6 +126,12 @@ import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
  * {@code curl http://localhost:8719/tree?type=root}
  * </p>
  *
+ * <p>
+ * When {@link FlatStatisticProperty#enabled} is on and the resource has no flow rule of
+ * {@link RuleConstant#STRATEGY_CHAIN}, no {@link DefaultNode} is created per context. All contexts share one
+ * {@link FlatNode} which only counts on the {@link ClusterNode}, and the resource won't appear in the tree.
+ * </p>
+ *
  * @author jialiang.linjl
  * @see EntranceNode
  * @see ContextUtil
@@ -130,6 +143,11 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
      */
     private Map<String, DefaultNode> map = new HashMap<String, DefaultNode>(10);
 
+    /**
+     * The node shared by all contexts in flat statistic mode.
+     */
+    private volatile FlatNode flatNode;
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, Object... args)
         throws Throwable {
@@ -151,19 +169,51 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
          * The answer is all {@link DefaultNode}s with same resource name share one
          * {@link ClusterNode}. See {@link ClusterBuilderSlot} for detail.
          */
+        if (FlatStatisticProperty.enabled && !FlowRuleManager.hasChainRule(resourceWrapper.getName())) {
+            FlatNode node = flatNode;
+            if (node == null) {
+                synchronized (this) {
+                    node = flatNode;
+                    if (node == null) {
+                        node = new FlatNode(resourceWrapper, null);
+                        flatNode = node;
+                    }
+                }
+            }
+            context.setCurNode(node);
+            fireEntry(context, resourceWrapper, node, count, args);
+            return;
+        }
+
         DefaultNode node = map.get(context.getName());
-        if (node == null) {
+        // Idle nodes removed from the tree (or the whole tree of an evicted context) are created again.
+        if (node == null || node.isRemoved()) {
             synchronized (this) {
                 node = map.get(context.getName());
-                if (node == null) {
-                    node = Env.nodeBuilder.buildTreeNode(resourceWrapper, null);
-                    HashMap<String, DefaultNode> cacheMap = new HashMap<String, DefaultNode>(map.size());
-                    cacheMap.putAll(map);
+                boolean created = false;
+                ResourceWindowConfig windowConfig = null;
+                if (node == null || node.isRemoved()) {
+                    windowConfig = ResourceWindowConfigManager.getConfig(resourceWrapper.getName());
+                    node = ResourceWindowConfigManager.buildTreeNode(Env.nodeBuilder, resourceWrapper, windowConfig);
+                    created = true;
+                    HashMap<String, DefaultNode> cacheMap = new HashMap<String, DefaultNode>(map.size() + 1);
+                    for (Map.Entry<String, DefaultNode> e : map.entrySet()) {
+                        if (!e.getValue().isRemoved()) {
+                            cacheMap.put(e.getKey(), e.getValue());
+                        }
+                    }
                     cacheMap.put(context.getName(), node);
                     map = cacheMap;
                 }
-                // Build invocation tree
-                ((DefaultNode)context.getLastNode()).addChild(node);
+                // Build invocation tree. A flat node is not in the tree, so children of it go to the entrance.
+                Node parent = context.getLastNode();
+                if (parent instanceof FlatNode) {
+                    parent = context.getEntranceNode();
+                }
+                ((DefaultNode)parent).addChild(node);
+                if (created) {
+                    ResourceWindowConfigManager.ensureLatest(resourceWrapper.getName(), windowConfig, node);
+                }
             }
         }
 
@@ -17,10 +17,13 @@ package com.alibaba.csp.sentinel.slots.statistic;
 
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.StatisticNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
@@ -37,6 +40,9 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
  * <li> Finally, the sum statistics of all entrances.</li>
  * </ul>
  * </p>
+ * <p>
+ * The clock is read once per entry and exit, all the nodes above are counted in the windows of that time.
+ * </p>
  *
  * @author jialiang.linjl
  */
@@ -48,44 +54,52 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
         try {
             fireEntry(context, resourceWrapper, node, count, args);
+            // All nodes are counted in the windows of the same time, so the clock is read only once.
+            long now = TimeUtil.currentTimeMillis();
+            StatisticNode originNode = originNodeOf(context.getCurEntry());
+
             node.increaseThreadNum();
-            node.addPassRequest();
+            node.addPassRequest(count, now);
 
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().increaseThreadNum();
-                context.getCurEntry().getOriginNode().addPassRequest();
+            if (originNode != null) {
+                originNode.increaseThreadNum();
+                originNode.addPassRequest(count, now);
             }
 
             if (resourceWrapper.getType() == EntryType.IN) {
                 Constants.ENTRY_NODE.increaseThreadNum();
-                Constants.ENTRY_NODE.addPassRequest();
+                Constants.ENTRY_NODE.addPassRequest(count, now);
             }
 
         } catch (BlockException e) {
             context.getCurEntry().setError(e);
+            long now = TimeUtil.currentTimeMillis();
+            StatisticNode originNode = originNodeOf(context.getCurEntry());
 
             // Add block count.
-            node.increaseBlockedQps();
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().increaseBlockedQps();
+            node.increaseBlockedQps(count, now);
+            if (originNode != null) {
+                originNode.increaseBlockedQps(count, now);
             }
 
             if (resourceWrapper.getType() == EntryType.IN) {
-                Constants.ENTRY_NODE.increaseBlockedQps();
+                Constants.ENTRY_NODE.increaseBlockedQps(count, now);
             }
 
             throw e;
         } catch (Throwable e) {
             context.getCurEntry().setError(e);
+            long now = TimeUtil.currentTimeMillis();
+            StatisticNode originNode = originNodeOf(context.getCurEntry());
 
             // Should not happen
-            node.increaseExceptionQps();
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().increaseExceptionQps();
+            node.increaseExceptionQps(count, now);
+            if (originNode != null) {
+                originNode.increaseExceptionQps(count, now);
             }
 
             if (resourceWrapper.getType() == EntryType.IN) {
-                Constants.ENTRY_NODE.increaseExceptionQps();
+                Constants.ENTRY_NODE.increaseExceptionQps(count, now);
             }
             throw e;
         }
@@ -96,24 +110,23 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         DefaultNode node = (DefaultNode)context.getCurNode();
 
         if (context.getCurEntry().getError() == null) {
-            long rt = TimeUtil.currentTimeMillis() - context.getCurEntry().getCreateTime();
-            if (rt > Constants.TIME_DROP_VALVE) {
-                rt = Constants.TIME_DROP_VALVE;
-            }
+            long now = TimeUtil.currentTimeMillis();
+            long rt = rtMicrosOf(context.getCurEntry(), now);
+            StatisticNode originNode = originNodeOf(context.getCurEntry());
 
-            node.rt(rt);
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().rt(rt);
+            node.addRtMicros(rt, count, now);
+            if (originNode != null) {
+                originNode.addRtMicros(rt, count, now);
             }
 
             node.decreaseThreadNum();
 
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().decreaseThreadNum();
+            if (originNode != null) {
+                originNode.decreaseThreadNum();
             }
 
             if (resourceWrapper.getType() == EntryType.IN) {
-                Constants.ENTRY_NODE.rt(rt);
+                Constants.ENTRY_NODE.addRtMicros(rt, count, now);
                 Constants.ENTRY_NODE.decreaseThreadNum();
             }
         } else {
@@ -124,4 +137,28 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         fireExit(context, resourceWrapper, count);
     }
 
+    /**
+     * Origin nodes are created as {@link StatisticNode}s by {@link ClusterNode#getOriginNode(String)}.
+     */
+    private static StatisticNode originNodeOf(Entry entry) {
+        Node originNode = entry.getOriginNode();
+        return originNode instanceof StatisticNode ? (StatisticNode)originNode : null;
+    }
+
+    /**
+     * Get RT of the entry in microseconds, which will not exceed {@link Constants#TIME_DROP_VALVE} ms.
+     */
+    private static long rtMicrosOf(Entry entry, long now) {
+        long rt;
+        if (entry.isNanoTimed()) {
+            rt = (TimeUtil.nanoTime() - entry.getCreateNanoTime()) / 1000;
+        } else {
+            rt = (now - entry.getCreateTime()) * 1000;
+        }
+        if (rt > Constants.TIME_DROP_VALVE * 1000L) {
+            rt = Constants.TIME_DROP_VALVE * 1000L;
+        }
+        return Math.max(rt, 0);
+    }
+
 }
@@ -72,7 +72,7 @@ public abstract class LeapArray<T> {
     }
 
     public WindowWrap<T> getPreviousWindow() {
-        return getPreviousWindow(System.currentTimeMillis());
+        return getPreviousWindow(TimeUtil.currentTimeMillis());
     }
 
     public T getWindowValue(long time) {
@@ -92,7 +92,38 @@ public abstract class LeapArray<T> {
     }
 
     private boolean isWindowDeprecated(WindowWrap<T> windowWrap) {
-        return TimeUtil.currentTimeMillis() - windowWrap.windowStart() >= intervalInMs;
+        return isWindowDeprecated(TimeUtil.currentTimeMillis(), windowWrap);
+    }
+
+    /**
+     * Check whether the window is deprecated at provided time, that is out of the interval.
+     *
+     * @param time       a valid timestamp
+     * @param windowWrap the window
+     * @return true if the window is deprecated at provided time
+     */
+    public boolean isWindowDeprecated(long time, WindowWrap<T> windowWrap) {
+        return time - windowWrap.windowStart() >= intervalInMs;
+    }
+
+    /**
+     * Get the window at provided index of the array without any checking. This is designed for
+     * aggregating windows in place, use {@link #isWindowDeprecated(long, WindowWrap)} to filter
+     * deprecated windows.
+     *
+     * @param idx index of the array, from 0 to {@link #getSampleCount()} - 1
+     * @return the window, may be null or deprecated
+     */
+    public WindowWrap<T> getWindowWrapAt(int idx) {
+        return array.get(idx);
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getIntervalInMs() {
+        return intervalInMs;
     }
 
     public List<WindowWrap<T>> list() {
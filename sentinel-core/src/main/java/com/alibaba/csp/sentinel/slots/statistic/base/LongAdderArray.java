@@ -0,0 +1,190 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.base;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * A fixed length array of sums, which acts like an array of {@link LongAdder}s but in a compact layout.
+ * </p>
+ * <p>
+ * All the sums share one base array, and a table of stripes (each holds a value of every sum) is lazily
+ * created on contention. As {@link Striped64}, the stripe is chosen by the per-thread hash code, and the
+ * table will grow (up to the number of CPUs) when updates still collide. So instead of several adders
+ * and their cells, only two arrays are needed for an uncontended instance.
+ * </p>
+ *
+ * @see LongAdder
+ */
+public class LongAdderArray {
+
+    /**
+     * Extra slots appended to every stripe, so adjacent stripes are less likely to share a cache line.
+     */
+    private static final int STRIPE_PADDING = 8;
+
+    private static final AtomicIntegerFieldUpdater<LongAdderArray> BUSY_UPDATER
+        = AtomicIntegerFieldUpdater.newUpdater(LongAdderArray.class, "busy");
+
+    private final int length;
+    private final AtomicLongArray base;
+
+    /**
+     * Table of stripes. When non-null, size is a power of 2.
+     */
+    private volatile AtomicLongArray[] stripes;
+
+    /**
+     * Spinlock (locked via CAS) used when creating or resizing the stripes.
+     */
+    private volatile int busy;
+
+    public LongAdderArray(int length) {
+        this.length = length;
+        this.base = new AtomicLongArray(length);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Adds the given value to the sum at the index.
+     *
+     * @param index index of the sum
+     * @param x     the value to add
+     */
+    public void add(int index, long x) {
+        AtomicLongArray[] as = stripes;
+        if (as == null) {
+            long v = base.get(index);
+            if (base.compareAndSet(index, v, v + x)) {
+                return;
+            }
+        } else {
+            Striped64.HashCode hc = Striped64.threadHashCode.get();
+            AtomicLongArray a = as[hc.code & (as.length - 1)];
+            long v = a.get(index);
+            if (a.compareAndSet(index, v, v + x)) {
+                return;
+            }
+        }
+        retryAdd(index, x);
+    }
+
+    private void retryAdd(int index, long x) {
+        Striped64.HashCode hc = Striped64.threadHashCode.get();
+        int h = hc.code;
+        boolean collide = false;
+        for (; ; ) {
+            AtomicLongArray[] as = stripes;
+            if (as == null) {
+                if (busy == 0 && BUSY_UPDATER.compareAndSet(this, 0, 1)) {
+                    try {
+                        if (stripes == null) {
+                            stripes = newStripes(null, 2);
+                        }
+                    } finally {
+                        busy = 0;
+                    }
+                    continue;
+                }
+                // Fall back on using base.
+                long v = base.get(index);
+                if (base.compareAndSet(index, v, v + x)) {
+                    break;
+                }
+                continue;
+            }
+            int n = as.length;
+            AtomicLongArray a = as[(n - 1) & h];
+            long v = a.get(index);
+            if (a.compareAndSet(index, v, v + x)) {
+                break;
+            }
+            if (n >= Striped64.NCPU || stripes != as) {
+                collide = false;
+            } else if (!collide) {
+                collide = true;
+            } else if (busy == 0 && BUSY_UPDATER.compareAndSet(this, 0, 1)) {
+                try {
+                    if (stripes == as) {
+                        stripes = newStripes(as, n << 1);
+                    }
+                } finally {
+                    busy = 0;
+                }
+                collide = false;
+                continue;
+            }
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+        }
+        hc.code = h;
+    }
+
+    private AtomicLongArray[] newStripes(AtomicLongArray[] old, int n) {
+        AtomicLongArray[] rs = new AtomicLongArray[n];
+        int i = 0;
+        if (old != null) {
+            for (; i < old.length; i++) {
+                rs[i] = old[i];
+            }
+        }
+        for (; i < n; i++) {
+            rs[i] = new AtomicLongArray(length + STRIPE_PADDING);
+        }
+        return rs;
+    }
+
+    /**
+     * Returns the current sum at the index. The returned value is NOT an atomic snapshot,
+     * concurrent updates may not be incorporated, same as {@link LongAdder#sum()}.
+     *
+     * @param index index of the sum
+     * @return the sum at the index
+     */
+    public long sum(int index) {
+        long sum = base.get(index);
+        AtomicLongArray[] as = stripes;
+        if (as != null) {
+            for (AtomicLongArray a : as) {
+                sum += a.get(index);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Resets all the sums to zero. This method is only effective when there are no concurrent updates.
+     */
+    public void reset() {
+        for (int i = 0; i < length; i++) {
+            base.set(i, 0);
+        }
+        AtomicLongArray[] as = stripes;
+        if (as != null) {
+            for (AtomicLongArray a : as) {
+                for (int i = 0; i < length; i++) {
+                    a.set(i, 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.base;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.Constants;
+
+/**
+ * A compact log-bucket histogram of RT in microseconds. Every power of two is divided into
+ * {@link #SUB_BUCKETS} buckets, so the relative error of a recorded value is less than 25%, and
+ * RT up to {@link Constants#TIME_DROP_VALVE} ms needs only {@link #BUCKET_COUNT} counters.
+ * The exact max value is not kept here, see {@link Window#maxRtMicros()}.
+ */
+public class RtHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Max RT in microseconds, larger RT will be recorded as this.
+     */
+    public static final long MAX_VALUE_MICROS = Constants.TIME_DROP_VALVE * 1000L;
+
+    public static final int BUCKET_COUNT = bucketOf(MAX_VALUE_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    public void record(long micros) {
+        record(micros, 1);
+    }
+
+    public void record(long micros, int count) {
+        if (micros > MAX_VALUE_MICROS) {
+            micros = MAX_VALUE_MICROS;
+        }
+        counts.addAndGet(bucketOf(micros), count);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Add counts of this histogram to provided bucket array.
+     *
+     * @param target bucket array with length of {@link #BUCKET_COUNT}
+     */
+    public void addTo(long[] target) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            target[i] += counts.get(i);
+        }
+    }
+
+    public static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return micros < 0 ? 0 : (int)micros;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int)(micros >>> (exp - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exp - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Get the exclusive upper bound of the bucket in microseconds.
+     *
+     * @param bucket bucket index
+     * @return exclusive upper bound of the bucket
+     */
+    public static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        int exp = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long)(SUB_BUCKETS + sub + 1)) << (exp - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Get the value at provided percentile from merged bucket counts. The upper bound of the bucket
+     * is used (but never larger than the max), so the result never underestimates the real RT.
+     *
+     * @param counts     merged bucket counts
+     * @param max        max recorded value in microseconds
+     * @param percentile percentile in (0, 1], 1 means the max
+     * @return the value at provided percentile in microseconds, 0 if no value recorded
+     */
+    public static long valueAtPercentile(long[] counts, long max, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        if (percentile >= 1) {
+            return max;
+        }
+        long rank = Math.max(1, (long)Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.base;
 
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
 /**
  * Represents metrics data in a period of time window.
  *
@@ -23,82 +25,207 @@ package com.alibaba.csp.sentinel.slots.statistic.base;
  */
 public class Window {
 
-    private final LongAdder pass = new LongAdder();
-    private final LongAdder block = new LongAdder();
-    private final LongAdder exception = new LongAdder();
-    private final LongAdder rt = new LongAdder();
-    private final LongAdder success = new LongAdder();
-    private final LongAdder minRt = new LongAdder();
+    /**
+     * Min RT (in milliseconds) of a window without any RT recorded.
+     */
+    public static final long DEFAULT_MIN_RT = 4900;
+    public static final long DEFAULT_MIN_RT_MICROS = DEFAULT_MIN_RT * 1000;
+
+    private static final AtomicLongFieldUpdater<Window> MIN_RT_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(Window.class, "minRtMicros");
+    private static final AtomicLongFieldUpdater<Window> MAX_RT_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(Window.class, "maxRtMicros");
+
+    /**
+     * Counters of all {@link MetricEvent}s indexed by the ordinal, RT is in microseconds.
+     */
+    private final LongAdderArray counters = new LongAdderArray(MetricEvent.SIZE);
+    private volatile long minRtMicros = DEFAULT_MIN_RT_MICROS;
+    private volatile long maxRtMicros = 0;
+    /**
+     * Whether the window has been summed as a closed window, see {@link #markClosed()}.
+     */
+    private volatile boolean closed = false;
+
+    private final RtHistogram histogram;
 
     public Window() {
-        initMinRt();
+        this(false);
     }
 
-    private void initMinRt() {
-        minRt.add(4900);
+    /**
+     * @param histogramEnabled whether to record RT histogram in this window
+     */
+    public Window(boolean histogramEnabled) {
+        this.histogram = histogramEnabled ? new RtHistogram() : null;
     }
 
     /**
-     * Clean the adders and reset window to provided start time.
+     * Clean the counters and reset window to provided start time.
      *
      * @return new clean window
      */
     public Window reset() {
-        pass.reset();
-        block.reset();
-        exception.reset();
-        rt.reset();
-        success.reset();
-        minRt.reset();
-        initMinRt();
+        counters.reset();
+        minRtMicros = DEFAULT_MIN_RT_MICROS;
+        maxRtMicros = 0;
+        closed = false;
+        if (histogram != null) {
+            histogram.reset();
+        }
         return this;
     }
 
+    /**
+     * Mark the window as closed when it's summed as a window that won't change any more. Writers check
+     * {@link #isClosed()} after writing, so a write landing in the window afterwards can be detected.
+     */
+    public void markClosed() {
+        if (!closed) {
+            closed = true;
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Get current count of the event. RT is in microseconds.
+     *
+     * @param event metric event
+     * @return current count of the event
+     */
+    public long get(MetricEvent event) {
+        return counters.sum(event.ordinal());
+    }
+
+    /**
+     * Add count to the event. RT should be added by {@link #addRtMicros(long)}.
+     *
+     * @param event metric event
+     * @param count count to add
+     */
+    public void add(MetricEvent event, long count) {
+        counters.add(event.ordinal(), count);
+    }
+
     public long pass() {
-        return pass.sum();
+        return get(MetricEvent.PASS);
     }
 
     public long block() {
-        return block.sum();
+        return get(MetricEvent.BLOCK);
     }
 
     public long exception() {
-        return exception.sum();
+        return get(MetricEvent.EXCEPTION);
     }
 
+    /**
+     * Get total RT in milliseconds.
+     *
+     * @return total RT in milliseconds
+     */
     public long rt() {
-        return rt.sum();
+        return rtMicros() / 1000;
+    }
+
+    /**
+     * Get total RT in microseconds.
+     *
+     * @return total RT in microseconds
+     */
+    public long rtMicros() {
+        return get(MetricEvent.RT);
+    }
+
+    /**
+     * Get RT histogram of this window.
+     *
+     * @return RT histogram, or null if histogram is not enabled
+     */
+    public RtHistogram histogram() {
+        return histogram;
     }
 
+    /**
+     * Get the min RT in milliseconds, {@code 4900} if no RT recorded.
+     *
+     * @return min RT in milliseconds
+     */
     public long minRt() {
-        return minRt.longValue();
+        return minRtMicros / 1000;
+    }
+
+    public long minRtMicros() {
+        return minRtMicros;
+    }
+
+    /**
+     * Get the max RT in milliseconds, 0 if no RT recorded.
+     *
+     * @return max RT in milliseconds
+     */
+    public long maxRt() {
+        return maxRtMicros / 1000;
+    }
+
+    public long maxRtMicros() {
+        return maxRtMicros;
     }
 
     public long success() {
-        return success.sum();
+        return get(MetricEvent.SUCCESS);
     }
 
     public void addPass() {
-        pass.add(1L);
+        add(MetricEvent.PASS, 1L);
     }
 
     public void addException() {
-        exception.add(1L);
+        add(MetricEvent.EXCEPTION, 1L);
     }
 
     public void addBlock() {
-        block.add(1L);
+        add(MetricEvent.BLOCK, 1L);
     }
 
     public void addSuccess() {
-        success.add(1L);
+        add(MetricEvent.SUCCESS, 1L);
     }
 
     public void addRT(long rt) {
-        this.rt.add(rt);
+        addRtMicros(rt * 1000);
+    }
 
-        if (minRt.longValue() > rt) {
-            minRt.internalReset(rt);
+    public void addRtMicros(long rtMicros) {
+        addRtMicros(rtMicros, 1);
+    }
+
+    /**
+     * Add RT of a batch of {@code count} successful tokens, each token is counted as a sample of the RT,
+     * so the total RT stays consistent with the success count.
+     *
+     * @param rtMicros RT of the batch in microseconds
+     * @param count    token count of the batch
+     */
+    public void addRtMicros(long rtMicros, int count) {
+        counters.add(MetricEvent.RT.ordinal(), rtMicros * count);
+        if (histogram != null) {
+            histogram.record(rtMicros, count);
+        }
+
+        long current;
+        while (rtMicros < (current = minRtMicros)) {
+            if (MIN_RT_UPDATER.compareAndSet(this, current, rtMicros)) {
+                break;
+            }
+        }
+        while (rtMicros > (current = maxRtMicros)) {
+            if (MAX_RT_UPDATER.compareAndSet(this, current, rtMicros)) {
+                break;
+            }
         }
     }
 }
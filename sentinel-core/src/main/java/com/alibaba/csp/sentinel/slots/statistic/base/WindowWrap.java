@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.base;
 
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
 /**
  * Wrapper entity class for a period of time window.
  *
@@ -24,6 +26,10 @@ package com.alibaba.csp.sentinel.slots.statistic.base;
  */
 public class WindowWrap<T> {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<WindowWrap> START_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(WindowWrap.class, "windowStart");
+
     /**
      * The length of the window.
      */
@@ -32,7 +38,7 @@ public class WindowWrap<T> {
     /**
      * Start time of the window in milliseconds.
      */
-    private long windowStart;
+    private volatile long windowStart;
 
     /**
      * Statistic value.
@@ -71,6 +77,17 @@ public class WindowWrap<T> {
         return this;
     }
 
+    /**
+     * Atomically set the start time if it's still the expected one.
+     *
+     * @param expect expected start time
+     * @param update new start time
+     * @return true if successful
+     */
+    public boolean compareAndSetWindowStart(long expect, long update) {
+        return START_UPDATER.compareAndSet(this, expect, update);
+    }
+
     @Override
     public String toString() {
         return "WindowWrap{" +
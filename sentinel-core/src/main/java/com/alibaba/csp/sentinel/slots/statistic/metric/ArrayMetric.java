@@ -17,8 +17,12 @@ package com.alibaba.csp.sentinel.slots.statistic.metric;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.slots.statistic.base.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.RtHistogram;
 import com.alibaba.csp.sentinel.slots.statistic.base.Window;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 
@@ -32,8 +36,26 @@ public class ArrayMetric implements Metric {
 
     private final WindowLeapArray data;
 
+    private static final AtomicLongFieldUpdater<ArrayMetric> LATE_WRITES_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(ArrayMetric.class, "lateWrites");
+
+    private volatile ClosedWindowSums closedSums;
+    /**
+     * Count of writes landed in closed windows, the cached {@link #closedSums} is stale once it changes.
+     */
+    private volatile long lateWrites = 0;
+
     public ArrayMetric(int windowLength, int interval) {
-        this.data = new WindowLeapArray(windowLength, interval);
+        this(windowLength, interval, false);
+    }
+
+    /**
+     * @param windowLength     the time length of each window
+     * @param interval         total time length in seconds
+     * @param histogramEnabled whether to record RT histogram, which is required by {@link #rtPercentile(double)}
+     */
+    public ArrayMetric(int windowLength, int interval, boolean histogramEnabled) {
+        this.data = new WindowLeapArray(windowLength, interval, histogramEnabled);
     }
 
     /**
@@ -45,25 +67,23 @@ public class ArrayMetric implements Metric {
 
     @Override
     public long success() {
-        data.currentWindow();
-        long success = 0;
-
-        List<Window> list = data.values();
-        for (Window window : list) {
-            success += window.success();
-        }
-        return success;
+        return sum(MetricEvent.SUCCESS);
     }
 
     @Override
     public long maxSuccess() {
-        data.currentWindow();
+        long now = TimeUtil.currentTimeMillis();
+        data.currentWindow(now);
         long success = 0;
 
-        List<Window> list = data.values();
-        for (Window window : list) {
-            if (window.success() > success) {
-                success = window.success();
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<Window> wrap = data.getWindowWrapAt(i);
+            if (wrap == null || data.isWindowDeprecated(now, wrap)) {
+                continue;
+            }
+            long windowSuccess = wrap.value().success();
+            if (windowSuccess > success) {
+                success = windowSuccess;
             }
         }
         return Math.max(success, 1);
@@ -71,61 +91,266 @@ public class ArrayMetric implements Metric {
 
     @Override
     public long exception() {
-        data.currentWindow();
-        long exception = 0;
-        List<Window> list = data.values();
-        for (Window window : list) {
-            exception += window.exception();
-        }
-        return exception;
+        return sum(MetricEvent.EXCEPTION);
     }
 
     @Override
     public long block() {
-        data.currentWindow();
-        long block = 0;
-        List<Window> list = data.values();
-        for (Window window : list) {
-            block += window.block();
-        }
-        return block;
+        return sum(MetricEvent.BLOCK);
     }
 
     @Override
     public long pass() {
-        data.currentWindow();
-        long pass = 0;
-        List<Window> list = data.values();
-
-        for (Window window : list) {
-            pass += window.pass();
-        }
-        return pass;
+        return sum(MetricEvent.PASS);
     }
 
     @Override
     public long rt() {
-        data.currentWindow();
-        long rt = 0;
-        List<Window> list = data.values();
-        for (Window window : list) {
-            rt += window.rt();
-        }
-        return rt;
+        return rtMicros() / 1000;
+    }
+
+    /**
+     * Get total RT in microseconds.
+     *
+     * @return total RT in microseconds
+     */
+    public long rtMicros() {
+        return sum(MetricEvent.RT);
     }
 
     @Override
     public long minRt() {
-        data.currentWindow();
-        long rt = 4900;
-        List<Window> list = data.values();
-        for (Window window : list) {
-            if (window.minRt() < rt) {
-                rt = window.minRt();
+        return Math.max(1, minRtMicros() / 1000);
+    }
+
+    /**
+     * Get the minimal RT in microseconds.
+     *
+     * @return minimal RT in microseconds, {@code 4900000} if no RT recorded
+     */
+    public long minRtMicros() {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentWindow(now);
+        long rt = Window.DEFAULT_MIN_RT_MICROS;
+
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<Window> wrap = data.getWindowWrapAt(i);
+            if (wrap == null || data.isWindowDeprecated(now, wrap)) {
+                continue;
+            }
+            long windowMinRt = wrap.value().minRtMicros();
+            if (windowMinRt < rt) {
+                rt = windowMinRt;
             }
         }
 
-        return Math.max(1, rt);
+        return rt;
+    }
+
+    /**
+     * Get the max RT in microseconds.
+     *
+     * @return max RT in microseconds, 0 if no RT recorded
+     */
+    public long maxRtMicros() {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentWindow(now);
+        long max = 0;
+
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<Window> wrap = data.getWindowWrapAt(i);
+            if (wrap == null || data.isWindowDeprecated(now, wrap)) {
+                continue;
+            }
+            max = Math.max(max, wrap.value().maxRtMicros());
+        }
+        return max;
+    }
+
+    /**
+     * Sum all events of valid windows in one pass, RT is in microseconds.
+     *
+     * @param result array to hold the sums, indexed by {@link MetricEvent#ordinal()},
+     *               length should be at least {@link MetricEvent#SIZE}
+     */
+    public void sumAll(long[] result) {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentWindow(now);
+        for (int i = 0; i < MetricEvent.SIZE; i++) {
+            result[i] = 0;
+        }
+
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<Window> wrap = data.getWindowWrapAt(i);
+            if (wrap == null || data.isWindowDeprecated(now, wrap)) {
+                continue;
+            }
+            Window window = wrap.value();
+            result[MetricEvent.PASS.ordinal()] += window.get(MetricEvent.PASS);
+            result[MetricEvent.BLOCK.ordinal()] += window.get(MetricEvent.BLOCK);
+            result[MetricEvent.EXCEPTION.ordinal()] += window.get(MetricEvent.EXCEPTION);
+            result[MetricEvent.SUCCESS.ordinal()] += window.get(MetricEvent.SUCCESS);
+            result[MetricEvent.RT.ordinal()] += window.get(MetricEvent.RT);
+        }
+    }
+
+    /**
+     * Whether there is no event in all valid windows. Unlike {@link #sumAll(long[])}, it neither allocates
+     * the result nor creates the current window, so sweeping idle metrics costs nothing.
+     *
+     * @return true if all events of valid windows are zero
+     */
+    public boolean isEmpty() {
+        long now = TimeUtil.currentTimeMillis();
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<Window> wrap = data.getWindowWrapAt(i);
+            if (wrap == null || data.isWindowDeprecated(now, wrap)) {
+                continue;
+            }
+            Window window = wrap.value();
+            if (window.get(MetricEvent.PASS) != 0 || window.get(MetricEvent.BLOCK) != 0
+                || window.get(MetricEvent.EXCEPTION) != 0 || window.get(MetricEvent.SUCCESS) != 0
+                || window.get(MetricEvent.RT) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Take all sums, extremes and the RT histogram of valid windows in one pass, so the values
+     * are consistent with each other.
+     *
+     * @return snapshot of the metric
+     */
+    public MetricSnapshot snapshot() {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentWindow(now);
+        long[] sums = new long[MetricEvent.SIZE];
+        long maxSuccess = 0;
+        long minRtMicros = Window.DEFAULT_MIN_RT_MICROS;
+        long maxRtMicros = 0;
+        long[] rtCounts = null;
+
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<Window> wrap = data.getWindowWrapAt(i);
+            if (wrap == null || data.isWindowDeprecated(now, wrap)) {
+                continue;
+            }
+            Window window = wrap.value();
+            sums[MetricEvent.PASS.ordinal()] += window.get(MetricEvent.PASS);
+            sums[MetricEvent.BLOCK.ordinal()] += window.get(MetricEvent.BLOCK);
+            sums[MetricEvent.EXCEPTION.ordinal()] += window.get(MetricEvent.EXCEPTION);
+            sums[MetricEvent.SUCCESS.ordinal()] += window.get(MetricEvent.SUCCESS);
+            sums[MetricEvent.RT.ordinal()] += window.get(MetricEvent.RT);
+            maxSuccess = Math.max(maxSuccess, window.success());
+            minRtMicros = Math.min(minRtMicros, window.minRtMicros());
+            maxRtMicros = Math.max(maxRtMicros, window.maxRtMicros());
+            RtHistogram histogram = window.histogram();
+            if (histogram != null) {
+                if (rtCounts == null) {
+                    rtCounts = new long[RtHistogram.BUCKET_COUNT];
+                }
+                histogram.addTo(rtCounts);
+            }
+        }
+        return new MetricSnapshot(data.getSampleCount(), data.getIntervalInMs(), sums, Math.max(maxSuccess, 1),
+            minRtMicros, maxRtMicros, rtCounts);
+    }
+
+    /**
+     * Sum the event of all valid windows. Only the current window is read, other valid windows are
+     * summed once per window rotation, see {@link #closedSums(long, WindowWrap)}.
+     */
+    private long sum(MetricEvent event) {
+        long now = TimeUtil.currentTimeMillis();
+        WindowWrap<Window> current = data.currentWindow(now);
+        return closedSums(now, current).sums[event.ordinal()] + current.value().get(event);
+    }
+
+    /**
+     * Get sums of the valid windows other than the current one. Those windows are closed and won't
+     * change any more, so the sums are cached until the current window changes, and reading a counter
+     * costs O(1) instead of walking all windows on every flow check. Windows are marked closed before
+     * being summed, so a late write (eg. already in progress when the window rotated) is detected by
+     * the writer, and the sums are taken again.
+     */
+    private ClosedWindowSums closedSums(long now, WindowWrap<Window> current) {
+        ClosedWindowSums cached = closedSums;
+        // Read before marking windows closed, so a late write missed by the sums always changes it.
+        long lateWriteCount = lateWrites;
+        if (cached != null && cached.windowStart == current.windowStart() && cached.lateWrites == lateWriteCount) {
+            return cached;
+        }
+        long[] sums = new long[MetricEvent.SIZE];
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<Window> wrap = data.getWindowWrapAt(i);
+            if (wrap == null || wrap == current || data.isWindowDeprecated(now, wrap)
+                || wrap.windowStart() > current.windowStart()) {
+                continue;
+            }
+            Window window = wrap.value();
+            window.markClosed();
+            sums[MetricEvent.PASS.ordinal()] += window.get(MetricEvent.PASS);
+            sums[MetricEvent.BLOCK.ordinal()] += window.get(MetricEvent.BLOCK);
+            sums[MetricEvent.EXCEPTION.ordinal()] += window.get(MetricEvent.EXCEPTION);
+            sums[MetricEvent.SUCCESS.ordinal()] += window.get(MetricEvent.SUCCESS);
+            sums[MetricEvent.RT.ordinal()] += window.get(MetricEvent.RT);
+        }
+        ClosedWindowSums computed = new ClosedWindowSums(current.windowStart(), lateWriteCount, sums);
+        // Never go back to an older window, eg. when the caller got a detached window with a stale timestamp.
+        if (cached == null || computed.windowStart > cached.windowStart
+            || (computed.windowStart == cached.windowStart && computed.lateWrites > cached.lateWrites)) {
+            closedSums = computed;
+        }
+        return computed;
+    }
+
+    /**
+     * Get RT at provided percentile. RT histogram must be enabled, otherwise 0 will return.
+     *
+     * @param percentile percentile in (0, 1], 1 means the max RT
+     * @return RT at provided percentile in microseconds
+     */
+    public long rtPercentile(double percentile) {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentWindow(now);
+        long[] counts = null;
+        long max = 0;
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            WindowWrap<Window> wrap = data.getWindowWrapAt(i);
+            if (wrap == null || data.isWindowDeprecated(now, wrap)) {
+                continue;
+            }
+            RtHistogram histogram = wrap.value().histogram();
+            if (histogram == null) {
+                continue;
+            }
+            if (counts == null) {
+                counts = new long[RtHistogram.BUCKET_COUNT];
+            }
+            histogram.addTo(counts);
+            max = Math.max(max, wrap.value().maxRtMicros());
+        }
+        return counts == null ? 0 : RtHistogram.valueAtPercentile(counts, max, percentile);
+    }
+
+    /**
+     * Get count of the buckets in the sliding window.
+     *
+     * @return sample count
+     */
+    public int getSampleCount() {
+        return data.getSampleCount();
+    }
+
+    /**
+     * Get total time length of the sliding window.
+     *
+     * @return interval in milliseconds
+     */
+    public int getIntervalInMs() {
+        return data.getIntervalInMs();
     }
 
     @Override
@@ -157,37 +382,138 @@ public class ArrayMetric implements Metric {
     @Override
     public Window[] windows() {
         data.currentWindow();
-        return data.values().toArray(new Window[data.values().size()]);
+        List<Window> values = data.values();
+        return values.toArray(new Window[values.size()]);
     }
 
     @Override
     public void addException() {
-        WindowWrap<Window> wrap = data.currentWindow();
-        wrap.value().addException();
+        Window window = data.currentWindow().value();
+        window.addException();
+        checkLateWrite(window);
+    }
+
+    /**
+     * Add given count to the current exception count.
+     *
+     * @param count count to add
+     */
+    public void addException(int count) {
+        Window window = data.currentWindow().value();
+        window.add(MetricEvent.EXCEPTION, count);
+        checkLateWrite(window);
     }
 
     @Override
     public void addBlock() {
-        WindowWrap<Window> wrap = data.currentWindow();
-        wrap.value().addBlock();
+        Window window = data.currentWindow().value();
+        window.addBlock();
+        checkLateWrite(window);
+    }
+
+    /**
+     * Add given count to the current block count.
+     *
+     * @param count count to add
+     */
+    public void addBlock(int count) {
+        Window window = data.currentWindow().value();
+        window.add(MetricEvent.BLOCK, count);
+        checkLateWrite(window);
     }
 
     @Override
     public void addSuccess() {
-        WindowWrap<Window> wrap = data.currentWindow();
-        wrap.value().addSuccess();
+        Window window = data.currentWindow().value();
+        window.addSuccess();
+        checkLateWrite(window);
+    }
+
+    /**
+     * Add given count to the current success count.
+     *
+     * @param count count to add
+     */
+    public void addSuccess(int count) {
+        Window window = data.currentWindow().value();
+        window.add(MetricEvent.SUCCESS, count);
+        checkLateWrite(window);
     }
 
     @Override
     public void addPass() {
-        WindowWrap<Window> wrap = data.currentWindow();
-        wrap.value().addPass();
+        Window window = data.currentWindow().value();
+        window.addPass();
+        checkLateWrite(window);
+    }
+
+    /**
+     * Add given count to the current pass count.
+     *
+     * @param count count to add
+     */
+    public void addPass(int count) {
+        Window window = data.currentWindow().value();
+        window.add(MetricEvent.PASS, count);
+        checkLateWrite(window);
     }
 
     @Override
     public void addRT(long rt) {
-        WindowWrap<Window> wrap = data.currentWindow();
-        wrap.value().addRT(rt);
+        Window window = data.currentWindow().value();
+        window.addRT(rt);
+        checkLateWrite(window);
+    }
+
+    /**
+     * Add given RT in microseconds to current total RT.
+     *
+     * @param rtMicros RT in microseconds
+     */
+    public void addRtMicros(long rtMicros) {
+        Window window = data.currentWindow().value();
+        window.addRtMicros(rtMicros);
+        checkLateWrite(window);
+    }
+
+    /**
+     * Add count of the event to the window at provided time. Callers updating several metrics for one
+     * invocation can read the clock once and pass the same time to all of them.
+     *
+     * @param event event to add
+     * @param count count to add
+     * @param time  current timestamp in milliseconds
+     */
+    public void add(MetricEvent event, long count, long time) {
+        Window window = data.currentWindow(time).value();
+        window.add(event, count);
+        checkLateWrite(window);
+    }
+
+    /**
+     * Add given count to the success count and add given RT to the window at provided time,
+     * the window is resolved only once for both. The RT is counted for every token of the batch, so the total RT
+     * divided by the success count is the average RT.
+     *
+     * @param rtMicros RT in microseconds
+     * @param count    success count to add
+     * @param time     current timestamp in milliseconds
+     */
+    public void addRtAndSuccess(long rtMicros, int count, long time) {
+        Window window = data.currentWindow(time).value();
+        window.add(MetricEvent.SUCCESS, count);
+        window.addRtMicros(rtMicros, count);
+        checkLateWrite(window);
+    }
+
+    /**
+     * Detect a write landing in a window which has been summed into {@link #closedSums}, eg. a write already
+     * in progress when the window rotated, so the cached sums are taken again.
+     */
+    private void checkLateWrite(Window window) {
+        if (window.isClosed()) {
+            LATE_WRITES_UPDATER.incrementAndGet(this);
+        }
     }
 
     @Override
@@ -207,8 +533,9 @@ public class ArrayMetric implements Metric {
 
     @Override
     public long previousWindowBlock() {
-        WindowWrap<Window> wrap = data.currentWindow();
-        wrap = data.getPreviousWindow();
+        long now = TimeUtil.currentTimeMillis();
+        data.currentWindow(now);
+        WindowWrap<Window> wrap = data.getPreviousWindow(now);
         if (wrap == null) {
             return 0;
         }
@@ -217,12 +544,30 @@ public class ArrayMetric implements Metric {
 
     @Override
     public long previousWindowPass() {
-        WindowWrap<Window> wrap = data.currentWindow();
-        wrap = data.getPreviousWindow();
+        long now = TimeUtil.currentTimeMillis();
+        data.currentWindow(now);
+        WindowWrap<Window> wrap = data.getPreviousWindow(now);
         if (wrap == null) {
             return 0;
         }
         return wrap.value().pass();
     }
 
+    private static final class ClosedWindowSums {
+        /**
+         * Start time of the current window when the sums are taken.
+         */
+        final long windowStart;
+        /**
+         * Count of late writes when the sums are taken.
+         */
+        final long lateWrites;
+        final long[] sums;
+
+        ClosedWindowSums(long windowStart, long lateWrites, long[] sums) {
+            this.windowStart = windowStart;
+            this.lateWrites = lateWrites;
+            this.sums = sums;
+        }
+    }
 }
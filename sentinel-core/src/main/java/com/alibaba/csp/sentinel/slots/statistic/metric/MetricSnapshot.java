@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.RtHistogram;
+
+/**
+ * Sums of all valid windows of a {@link Metric}, taken in one pass at the same time point,
+ * so the values are consistent with each other.
+ *
+ * @see ArrayMetric#snapshot()
+ */
+public final class MetricSnapshot {
+
+    private final int sampleCount;
+    private final int intervalInMs;
+    private final long[] sums;
+    private final long maxSuccess;
+    private final long minRtMicros;
+    private final long maxRtMicros;
+    private final long[] rtCounts;
+
+    /**
+     * @param sampleCount  count of buckets of the metric
+     * @param intervalInMs total time length of the metric
+     * @param sums         sums of events indexed by {@link MetricEvent#ordinal()}, RT is in microseconds
+     * @param maxSuccess   max success count of a single window
+     * @param minRtMicros  min RT in microseconds
+     * @param maxRtMicros  max RT in microseconds
+     * @param rtCounts     merged RT histogram buckets, null if RT histogram is disabled
+     */
+    MetricSnapshot(int sampleCount, int intervalInMs, long[] sums, long maxSuccess, long minRtMicros,
+                   long maxRtMicros, long[] rtCounts) {
+        this.sampleCount = sampleCount;
+        this.intervalInMs = intervalInMs;
+        this.sums = sums;
+        this.maxSuccess = maxSuccess;
+        this.minRtMicros = minRtMicros;
+        this.maxRtMicros = maxRtMicros;
+        this.rtCounts = rtCounts;
+    }
+
+    public long get(MetricEvent event) {
+        return sums[event.ordinal()];
+    }
+
+    public long pass() {
+        return get(MetricEvent.PASS);
+    }
+
+    public long block() {
+        return get(MetricEvent.BLOCK);
+    }
+
+    public long success() {
+        return get(MetricEvent.SUCCESS);
+    }
+
+    public long exception() {
+        return get(MetricEvent.EXCEPTION);
+    }
+
+    /**
+     * @return total RT in milliseconds
+     */
+    public long rt() {
+        return get(MetricEvent.RT) / 1000;
+    }
+
+    public long maxSuccess() {
+        return maxSuccess;
+    }
+
+    /**
+     * @return min RT in milliseconds, at least 1, see {@link Metric#minRt()}
+     */
+    public long minRt() {
+        return Math.max(1, minRtMicros / 1000);
+    }
+
+    public long minRtMicros() {
+        return minRtMicros;
+    }
+
+    public long maxRtMicros() {
+        return maxRtMicros;
+    }
+
+    /**
+     * Get RT at provided percentile, see {@link ArrayMetric#rtPercentile(double)}.
+     *
+     * @param percentile percentile in (0, 1], 1 means the max RT
+     * @return RT at provided percentile in microseconds, 0 if RT histogram is disabled
+     */
+    public long rtPercentile(double percentile) {
+        return rtCounts == null ? 0 : RtHistogram.valueAtPercentile(rtCounts, maxRtMicros, percentile);
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getIntervalInMs() {
+        return intervalInMs;
+    }
+}
@@ -15,36 +15,48 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.metric;
 
-import java.util.concurrent.locks.ReentrantLock;
-
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.Window;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 
 /**
- * The fundamental data structure for metric statistics in a time window.
+ * <p>The fundamental data structure for metric statistics in a time window.</p>
+ *
+ * <p>Each bucket holds one {@link WindowWrap} for its whole life, and a deprecated bucket is reset in
+ * place, so the rotation allocates nothing and keeps the stripes the counters have grown under
+ * contention. The start time of the bucket is its epoch: the only thread which moves it from the
+ * deprecated start to {@link #RESETTING} by CAS resets the counters, then publishes the new start.
+ * Other threads wait for the new start instead of resetting it again, so no count of the new window
+ * is wiped out. Only a write still in progress on the deprecated window may land in the new one.</p>
  *
  * @author jialiang.linjl
  * @author Eric Zhao
  */
 public class WindowLeapArray extends LeapArray<Window> {
 
+    /**
+     * Start time of a bucket being reset. It's always deprecated for readers.
+     */
+    private static final long RESETTING = -1;
+
+    private final boolean histogramEnabled;
+
     public WindowLeapArray(int windowLengthInMs, int intervalInSec) {
-        super(windowLengthInMs, intervalInSec);
+        this(windowLengthInMs, intervalInSec, false);
     }
 
-    private ReentrantLock addLock = new ReentrantLock();
-
     /**
-     * Reset current window to provided start time and reset all counters.
-     *
-     * @param startTime the start time of the window
-     * @return new clean window wrap
+     * @param windowLengthInMs the time length of each window
+     * @param intervalInSec    total time length of the array
+     * @param histogramEnabled whether to record RT histogram in windows
      */
-    private WindowWrap<Window> resetWindowTo(WindowWrap<Window> w, long startTime) {
-        w.resetTo(startTime);
-        w.value().reset();
-        return w;
+    public WindowLeapArray(int windowLengthInMs, int intervalInSec, boolean histogramEnabled) {
+        super(windowLengthInMs, intervalInSec);
+        this.histogramEnabled = histogramEnabled;
+    }
+
+    private WindowWrap<Window> newWindow(long startTime) {
+        return new WindowWrap<Window>(windowLength, startTime, new Window(histogramEnabled));
     }
 
     @Override
@@ -59,29 +71,31 @@ public class WindowLeapArray extends LeapArray<Window> {
         while (true) {
             WindowWrap<Window> old = array.get(idx);
             if (old == null) {
-                WindowWrap<Window> window = new WindowWrap<Window>(windowLength, time, new Window());
+                // Empty bucket, only happens once in the life of the bucket.
+                WindowWrap<Window> window = newWindow(time);
                 if (array.compareAndSet(idx, null, window)) {
                     return window;
-                } else {
-                    Thread.yield();
                 }
-            } else if (time == old.windowStart()) {
+                // Another thread has created the bucket, check it again.
+                continue;
+            }
+            long start = old.windowStart();
+            if (time == start) {
                 return old;
-            } else if (time > old.windowStart()) {
-                if (addLock.tryLock()) {
-                    try {
-                        // if (old is deprecated) then [LOCK] resetTo currentTime.
-                        return resetWindowTo(old, time);
-                    } finally {
-                        addLock.unlock();
-                    }
-                } else {
-                    Thread.yield();
+            } else if (start == RESETTING) {
+                // Another thread is resetting the bucket.
+                Thread.yield();
+            } else if (time > start) {
+                // Deprecated bucket, the winner of the CAS resets it in place.
+                if (old.compareAndSetWindowStart(start, RESETTING)) {
+                    old.value().reset();
+                    old.resetTo(time);
+                    return old;
                 }
-
-            } else if (time < old.windowStart()) {
-                // Cannot go through here.
-                return new WindowWrap<Window>(windowLength, time, new Window());
+            } else {
+                // The bucket is newer than provided time (eg. caller with a stale timestamp),
+                // the time is out of the array so a detached window is returned.
+                return newWindow(time);
             }
         }
     }
@@ -31,6 +31,7 @@ import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleCheckSlot;
 
 /**
  * <p>
@@ -184,6 +185,7 @@ public class SystemRuleManager {
             } else {
                 checkSystemStatus.set(false);
             }
+            RuleCheckSlot.onRulesUpdated();
 
             RecordLog.info("current system system status : " + checkSystemStatus.get());
             RecordLog.info("current highestSystemLoad status : " + highestSystemLoad);
@@ -250,7 +252,7 @@ public class SystemRuleManager {
         }
 
         checkSystemStatus.set(checkStatus);
-
+        RuleCheckSlot.onRulesUpdated();
     }
 
     /**
@@ -15,38 +15,83 @@
  */
 package com.alibaba.csp.sentinel.util;
 
-import java.util.concurrent.TimeUnit;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.clock.AdaptiveTickingClock;
+import com.alibaba.csp.sentinel.util.clock.NanoClock;
+import com.alibaba.csp.sentinel.util.clock.SentinelClock;
+import com.alibaba.csp.sentinel.util.clock.SystemClock;
 
 /**
- * Provides millisecond-level time of OS.
+ * <p>Provides millisecond-level time of OS.</p>
+ *
+ * <p>Time is read from a pluggable {@link SentinelClock}, which is chosen by
+ * {@link SentinelConfig#CLOCK_MODE} and can be replaced by {@link #setClock(SentinelClock)}.</p>
  *
  * @author qinan.qn
  */
 public final class TimeUtil {
 
-    private static volatile long currentTimeMillis;
-
-    static {
-        currentTimeMillis = System.currentTimeMillis();
-        Thread daemon = new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (true) {
-                    currentTimeMillis = System.currentTimeMillis();
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(1);
-                    } catch (Throwable e) {
-
-                    }
-                }
-            }
-        });
-        daemon.setDaemon(true);
-        daemon.setName("sentinel-time-tick-thread");
-        daemon.start();
-    }
+    public static final String CLOCK_MODE_ADAPTIVE = "adaptive";
+    public static final String CLOCK_MODE_NANO = "nano";
+    public static final String CLOCK_MODE_SYSTEM = "system";
+
+    private static volatile SentinelClock clock = createDefaultClock();
 
     public static long currentTimeMillis() {
-        return currentTimeMillis;
+        return clock.currentTimeMillis();
+    }
+
+    /**
+     * Get high-resolution time in nanoseconds of current clock, only used to measure elapsed time.
+     *
+     * @return current value of the high-resolution time source in nanoseconds
+     */
+    public static long nanoTime() {
+        return clock.nanoTime();
+    }
+
+    public static SentinelClock getClock() {
+        return clock;
     }
+
+    /**
+     * Replace the clock, eg. with a virtual clock in tests. The ticker of the replaced
+     * {@link AdaptiveTickingClock} will be shut down.
+     *
+     * @param newClock new clock, not null
+     */
+    public static synchronized void setClock(SentinelClock newClock) {
+        if (newClock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        SentinelClock old = clock;
+        clock = newClock;
+        if (old != newClock && old instanceof AdaptiveTickingClock) {
+            ((AdaptiveTickingClock)old).shutdown();
+        }
+    }
+
+    /**
+     * Reset to the clock configured by {@link SentinelConfig#CLOCK_MODE}.
+     */
+    public static void resetClock() {
+        setClock(createDefaultClock());
+    }
+
+    private static SentinelClock createDefaultClock() {
+        String mode = SentinelConfig.clockMode();
+        if (CLOCK_MODE_NANO.equalsIgnoreCase(mode)) {
+            return new NanoClock();
+        }
+        if (CLOCK_MODE_SYSTEM.equalsIgnoreCase(mode)) {
+            return new SystemClock();
+        }
+        if (!CLOCK_MODE_ADAPTIVE.equalsIgnoreCase(mode)) {
+            RecordLog.info("[TimeUtil] Unknown clock mode <" + mode + ">, use " + CLOCK_MODE_ADAPTIVE);
+        }
+        return new AdaptiveTickingClock();
+    }
+
+    private TimeUtil() {}
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Clock that caches {@link System#currentTimeMillis()}, refreshed by a daemon ticker thread every millisecond,
+ * so the hot path only reads a volatile field.
+ * </p>
+ * <p>
+ * Unlike a plain ticker, the ticker parks itself when the time has not been read for {@code idleMs}. While it's
+ * parked, reads fall back on {@link System#currentTimeMillis()} and the first read wakes the ticker up. So an idle
+ * JVM does not pay for a thread waking up every millisecond.
+ * </p>
+ */
+public class AdaptiveTickingClock implements SentinelClock {
+
+    public static final long DEFAULT_IDLE_MS = 1000;
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final AtomicLongFieldUpdater<AdaptiveTickingClock> TIME_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(AdaptiveTickingClock.class, "currentTimeMillis");
+
+    private final long idleMs;
+    private final Thread ticker;
+
+    private volatile long currentTimeMillis;
+    /**
+     * Whether the time has been read since the last idle check of the ticker.
+     */
+    private volatile boolean accessed = true;
+    private volatile boolean ticking = true;
+    private volatile boolean shutdown = false;
+
+    public AdaptiveTickingClock() {
+        this(DEFAULT_IDLE_MS);
+    }
+
+    /**
+     * @param idleMs the ticker will park when the time is not read within this period
+     */
+    public AdaptiveTickingClock(long idleMs) {
+        this.idleMs = idleMs;
+        this.currentTimeMillis = System.currentTimeMillis();
+        this.ticker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        });
+        ticker.setDaemon(true);
+        ticker.setName("sentinel-time-tick-thread");
+        ticker.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        if (!ticking) {
+            return wakeUp();
+        }
+        if (!accessed) {
+            accessed = true;
+        }
+        return currentTimeMillis;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Whether the ticker is running, false means it's parked because of idleness (or shut down).
+     *
+     * @return true if the ticker is running
+     */
+    public boolean isTicking() {
+        return ticking;
+    }
+
+    /**
+     * Stop the ticker thread, then all reads fall back on {@link System#currentTimeMillis()}.
+     */
+    public void shutdown() {
+        shutdown = true;
+        ticking = false;
+        LockSupport.unpark(ticker);
+    }
+
+    private long wakeUp() {
+        long now = System.currentTimeMillis();
+        if (!shutdown) {
+            // Refresh the cache before ticking is visible, so readers never see the time when the ticker parked.
+            now = advanceTo(now);
+            ticking = true;
+            LockSupport.unpark(ticker);
+        }
+        return now;
+    }
+
+    /**
+     * Move the cached time forward to provided time. Several threads may wake up the ticker at the same time,
+     * a slower one must not overwrite a newer time which has been returned to others.
+     *
+     * @return the cached time after the update
+     */
+    private long advanceTo(long now) {
+        while (true) {
+            long current = currentTimeMillis;
+            if (now <= current) {
+                return current;
+            }
+            if (TIME_UPDATER.compareAndSet(this, current, now)) {
+                return now;
+            }
+        }
+    }
+
+    private void tick() {
+        long lastCheck = System.currentTimeMillis();
+        while (!shutdown) {
+            long now = System.currentTimeMillis();
+            advanceTo(now);
+            if (now - lastCheck >= idleMs) {
+                lastCheck = now;
+                if (accessed) {
+                    accessed = false;
+                } else {
+                    ticking = false;
+                    while (!ticking && !shutdown) {
+                        LockSupport.park(this);
+                    }
+                    lastCheck = System.currentTimeMillis();
+                    accessed = true;
+                    continue;
+                }
+            }
+            LockSupport.parkNanos(this, TICK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+/**
+ * Clock that derives milliseconds from {@link System#nanoTime()} directly, anchored to the wall clock
+ * when created. It needs no background thread, and the time never goes backwards even if the
+ * system time is adjusted.
+ */
+public class NanoClock implements SentinelClock {
+
+    private final long baseMillis;
+    private final long baseNanos;
+
+    public NanoClock() {
+        this.baseMillis = System.currentTimeMillis();
+        this.baseNanos = System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return baseMillis + (System.nanoTime() - baseNanos) / 1000000;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+}
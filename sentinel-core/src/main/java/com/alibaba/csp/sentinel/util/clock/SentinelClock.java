@@ -0,0 +1,42 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * Time source of Sentinel. All the statistics and controllers read time through {@link TimeUtil},
+ * which delegates to the current clock.
+ *
+ * @see TimeUtil#setClock(SentinelClock)
+ */
+public interface SentinelClock {
+
+    /**
+     * Get current time in milliseconds, the same unit and origin as {@link System#currentTimeMillis()}.
+     *
+     * @return current time in milliseconds
+     */
+    long currentTimeMillis();
+
+    /**
+     * Get a high-resolution time in nanoseconds, only meaningful to measure elapsed time,
+     * same as {@link System#nanoTime()}.
+     *
+     * @return current value of the high-resolution time source in nanoseconds
+     */
+    long nanoTime();
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that only moves when told to, so time-based behaviors (eg. sliding windows and flow controllers)
+ * can be tested deterministically:
+ *
+ * <pre>
+ * VirtualClock clock = new VirtualClock(0);
+ * TimeUtil.setClock(clock);
+ * try {
+ *     // ...
+ *     clock.advance(500, TimeUnit.MILLISECONDS);
+ *     // ...
+ * } finally {
+ *     TimeUtil.resetClock();
+ * }
+ * </pre>
+ */
+public class VirtualClock implements SentinelClock {
+
+    private final AtomicLong nanos;
+
+    /**
+     * @param currentTimeMillis initial time in milliseconds
+     */
+    public VirtualClock(long currentTimeMillis) {
+        this.nanos = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(currentTimeMillis));
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.get());
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos.get();
+    }
+
+    public void setCurrentTimeMillis(long currentTimeMillis) {
+        nanos.set(TimeUnit.MILLISECONDS.toNanos(currentTimeMillis));
+    }
+
+    /**
+     * Move the clock forward.
+     *
+     * @param duration time to advance, must not be negative
+     * @param unit     unit of the duration
+     * @return current time in milliseconds after advancing
+     */
+    public long advance(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Clock cannot go backwards: " + duration);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(nanos.addAndGet(unit.toNanos(duration)));
+    }
+}
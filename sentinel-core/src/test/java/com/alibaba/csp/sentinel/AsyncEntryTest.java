@@ -0,0 +1,87 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+/**
+ * Test cases for {@link AsyncEntry}.
+ */
+public class AsyncEntryTest {
+
+    @Test
+    public void testAsyncEntryExitInOtherThread() throws Exception {
+        final AsyncEntry entry = SphU.asyncEntry("testAsyncEntryExitInOtherThread");
+
+        // The entry doesn't stay in the context of current thread.
+        assertNull(ContextUtil.getContext());
+        Context asyncContext = entry.getAsyncContext();
+        assertTrue(asyncContext.isAsync());
+        assertSame(entry, asyncContext.getCurEntry());
+
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode("testAsyncEntryExitInOtherThread");
+        assertEquals(1, clusterNode.curThreadNum());
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                entry.exit();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals(0, clusterNode.curThreadNum());
+        assertNull(entry.getAsyncContext());
+    }
+
+    @Test
+    public void testNestedEntryInAsyncContext() throws BlockException {
+        ContextUtil.enter("testNestedEntryInAsyncContext");
+        Entry outer = SphU.entry("outerSyncResource");
+        final AsyncEntry asyncEntry = SphU.asyncEntry("asyncResource");
+
+        // The parent entry is the current entry again.
+        assertSame(outer, ContextUtil.getContext().getCurEntry());
+
+        ContextUtil.runOnContext(asyncEntry.getAsyncContext(), new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Entry nested = SphU.entry("nestedResourceInAsync");
+                    assertSame(asyncEntry.getCurNode(), nested.getLastNode());
+                    nested.exit();
+                } catch (BlockException ex) {
+                    fail("unexpected blocked");
+                }
+            }
+        });
+        assertSame(outer, ContextUtil.getContext().getCurEntry());
+
+        outer.exit();
+        asyncEntry.exit();
+        ContextUtil.exit();
+        assertNull(ContextUtil.getContext());
+    }
+}
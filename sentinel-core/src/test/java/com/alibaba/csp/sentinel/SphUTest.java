@@ -18,12 +18,17 @@ package com.alibaba.csp.sentinel;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.RtProperty;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 /**
  * Test cases for {@link SphU}.
@@ -157,4 +162,37 @@ public class SphUTest {
 
         e.exit(2, arg0, arg1);
     }
+
+    @Test
+    public void testResourceHandleEntry() throws BlockException {
+        ResourceHandle handle = SphU.resource("handleResourceName", EntryType.IN);
+        assertSame(handle, SphU.resource("handleResourceName", EntryType.IN));
+        assertNotSame(handle, SphU.resource("handleResourceName", EntryType.OUT));
+
+        Entry e = SphU.entry(handle);
+        assertSame(handle.getResourceWrapper(), e.resourceWrapper);
+        assertSame(e.resourceWrapper.getType(), EntryType.IN);
+        assertEquals(ContextUtil.getContext().getName(), Constants.CONTEXT_DEFAULT_NAME);
+
+        e.exit();
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testRtOfEntryCreatedBeforeNanoTimeEnabled() throws BlockException {
+        VirtualClock clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+        try {
+            Entry e = SphU.entry("nanoTimeSwitchedResource");
+            // Switched on while the entry is running, the entry is still measured in milliseconds.
+            RtProperty.nanoTime = true;
+            clock.advance(20, TimeUnit.MILLISECONDS);
+            e.exit();
+
+            assertEquals(20, ClusterBuilderSlot.getClusterNode("nanoTimeSwitchedResource").avgRt());
+        } finally {
+            RtProperty.nanoTime = false;
+            TimeUtil.resetClock();
+        }
+    }
 }
@@ -15,19 +15,18 @@
  */
 package com.alibaba.csp.sentinel.base.metric;
 
-import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
-import com.alibaba.csp.sentinel.slots.statistic.base.Window;
-import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.base.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
 import com.alibaba.csp.sentinel.slots.statistic.metric.WindowLeapArray;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
 
 import static org.junit.Assert.*;
 
-import static org.mockito.Mockito.*;
-
 /**
  * Test cases for {@link ArrayMetric}.
  *
@@ -40,12 +39,7 @@ public class ArrayMetricTest {
 
     @Test
     public void testOperateArrayMetric() {
-        WindowLeapArray leapArray = mock(WindowLeapArray.class);
-        final WindowWrap<Window> windowWrap = new WindowWrap<Window>(windowLengthInMs, 0, new Window());
-        when(leapArray.currentWindow()).thenReturn(windowWrap);
-        when(leapArray.values()).thenReturn(new ArrayList<Window>() {{ add(windowWrap.value()); }});
-
-        ArrayMetric metric = new ArrayMetric(leapArray);
+        ArrayMetric metric = new ArrayMetric(new WindowLeapArray(windowLengthInMs, intervalInSec));
 
         final int expectedPass = 9;
         final int expectedBlock = 2;
@@ -72,5 +66,88 @@ public class ArrayMetricTest {
         assertEquals(expectedSuccess, metric.success());
         assertEquals(expectedException, metric.exception());
         assertEquals(expectedRt, metric.rt());
+
+        long[] sums = new long[MetricEvent.SIZE];
+        metric.sumAll(sums);
+        assertEquals(expectedPass, sums[MetricEvent.PASS.ordinal()]);
+        assertEquals(expectedBlock, sums[MetricEvent.BLOCK.ordinal()]);
+        assertEquals(expectedSuccess, sums[MetricEvent.SUCCESS.ordinal()]);
+        assertEquals(expectedException, sums[MetricEvent.EXCEPTION.ordinal()]);
+        assertEquals(expectedRt * 1000, sums[MetricEvent.RT.ordinal()]);
+    }
+
+    @Test
+    public void testSumAcrossWindowRotation() {
+        VirtualClock clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+        try {
+            ArrayMetric metric = new ArrayMetric(new WindowLeapArray(windowLengthInMs, intervalInSec));
+            metric.addPass();
+            metric.addPass();
+            assertEquals(2, metric.pass());
+
+            // Next window, the previous one is closed and cached.
+            clock.advance(windowLengthInMs, TimeUnit.MILLISECONDS);
+            assertEquals(2, metric.pass());
+            metric.addPass();
+            metric.addBlock();
+            assertEquals(3, metric.pass());
+            assertEquals(1, metric.block());
+
+            // The first window is deprecated now.
+            clock.advance(windowLengthInMs, TimeUnit.MILLISECONDS);
+            assertEquals(1, metric.pass());
+            metric.addPass();
+            assertEquals(2, metric.pass());
+
+            long[] sums = new long[MetricEvent.SIZE];
+            metric.sumAll(sums);
+            assertEquals(sums[MetricEvent.PASS.ordinal()], metric.pass());
+            assertEquals(sums[MetricEvent.BLOCK.ordinal()], metric.block());
+
+            clock.advance(intervalInSec, TimeUnit.SECONDS);
+            assertEquals(0, metric.pass());
+            assertEquals(0, metric.block());
+        } finally {
+            TimeUtil.resetClock();
+        }
+    }
+
+    @Test
+    public void testLateWriteToClosedWindow() {
+        VirtualClock clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+        try {
+            ArrayMetric metric = new ArrayMetric(new WindowLeapArray(windowLengthInMs, intervalInSec));
+            metric.addPass();
+
+            clock.advance(windowLengthInMs, TimeUnit.MILLISECONDS);
+            assertEquals(1, metric.pass());
+
+            // A write started before the rotation lands in the previous window after its sums were cached.
+            metric.add(MetricEvent.PASS, 1, 100000);
+            assertEquals(2, metric.pass());
+            metric.addPass();
+            assertEquals(3, metric.pass());
+        } finally {
+            TimeUtil.resetClock();
+        }
+    }
+
+    @Test
+    public void testIsEmpty() {
+        VirtualClock clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+        try {
+            ArrayMetric metric = new ArrayMetric(new WindowLeapArray(windowLengthInMs, intervalInSec));
+            assertTrue(metric.isEmpty());
+            metric.addException();
+            assertFalse(metric.isEmpty());
+
+            clock.advance(intervalInSec, TimeUnit.SECONDS);
+            assertTrue(metric.isEmpty());
+        } finally {
+            TimeUtil.resetClock();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.base.metric;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LongAdderArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.Window;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link LongAdderArray}.
+ */
+public class LongAdderArrayTest {
+
+    @Test
+    public void testAddAndReset() {
+        LongAdderArray array = new LongAdderArray(3);
+        array.add(0, 1);
+        array.add(2, 5);
+        array.add(2, -2);
+        assertEquals(1, array.sum(0));
+        assertEquals(0, array.sum(1));
+        assertEquals(3, array.sum(2));
+
+        array.reset();
+        for (int i = 0; i < array.length(); i++) {
+            assertEquals(0, array.sum(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        final LongAdderArray array = new LongAdderArray(MetricEvent.SIZE);
+        final int threads = 8;
+        final int loops = 20000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < loops; i++) {
+                            for (int j = 0; j < array.length(); j++) {
+                                array.add(j, j + 1);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        for (int j = 0; j < array.length(); j++) {
+            assertEquals((long)threads * loops * (j + 1), array.sum(j));
+        }
+    }
+
+    @Test
+    public void testWindowEvents() {
+        Window window = new Window();
+        window.addPass();
+        window.addPass();
+        window.addBlock();
+        window.add(MetricEvent.EXCEPTION, 3);
+        window.addSuccess();
+        window.addRtMicros(2500);
+        window.addRT(3);
+
+        assertEquals(2, window.pass());
+        assertEquals(1, window.block());
+        assertEquals(3, window.exception());
+        assertEquals(1, window.success());
+        assertEquals(5500, window.rtMicros());
+        assertEquals(5, window.rt());
+        assertEquals(2, window.minRt());
+
+        window.reset();
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(0, window.get(event));
+        }
+        assertEquals(4900, window.minRt());
+    }
+}
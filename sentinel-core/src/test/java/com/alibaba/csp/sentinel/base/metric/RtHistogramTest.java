@@ -0,0 +1,70 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.base.metric;
+
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.RtHistogram;
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link RtHistogram}.
+ */
+public class RtHistogramTest {
+
+    @Test
+    public void testBucketBounds() {
+        for (long v = 0; v < 100000; v++) {
+            int bucket = RtHistogram.bucketOf(v);
+            assertTrue(v < RtHistogram.bucketUpperBound(bucket));
+            if (bucket > 0) {
+                assertTrue(v >= RtHistogram.bucketUpperBound(bucket - 1));
+            }
+        }
+        assertEquals(RtHistogram.BUCKET_COUNT - 1, RtHistogram.bucketOf(RtHistogram.MAX_VALUE_MICROS));
+    }
+
+    @Test
+    public void testPercentile() {
+        RtHistogram histogram = new RtHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 100);
+        }
+        long[] counts = new long[RtHistogram.BUCKET_COUNT];
+        histogram.addTo(counts);
+
+        long p50 = RtHistogram.valueAtPercentile(counts, 10000, 0.5);
+        long p99 = RtHistogram.valueAtPercentile(counts, 10000, 0.99);
+        // Never underestimate, and relative error is less than 25%.
+        assertTrue(p50 >= 5000 && p50 <= 5000 * 1.25);
+        assertTrue(p99 >= 9900 && p99 <= 10000);
+        assertEquals(10000, RtHistogram.valueAtPercentile(counts, 10000, 1));
+    }
+
+    @Test
+    public void testArrayMetricPercentile() {
+        ArrayMetric metric = new ArrayMetric(500, 1, true);
+
+        metric.addRtMicros(300);
+        metric.addRtMicros(700);
+        metric.addRT(2);
+
+        assertEquals(2000, metric.rtPercentile(1));
+        assertEquals(3, metric.rt());
+    }
+}
@@ -20,6 +20,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.slots.statistic.base.Window;
@@ -145,6 +147,75 @@ public class WindowLeapArrayTest {
         assertEquals(nThreads, leapArray.currentWindow(time).value().pass());
     }
 
+    @Test
+    public void testMultiThreadRotateWindowNoLostCount() throws Exception {
+        final int windowLengthInMs = 100;
+        final int nThreads = 16;
+        final int passPerThread = 10;
+        final int rounds = 2000;
+        final long startTime = TimeUtil.currentTimeMillis();
+        final WindowLeapArray leapArray = new WindowLeapArray(windowLengthInMs, 1);
+        final AtomicInteger round = new AtomicInteger(0);
+        final AtomicInteger lostRounds = new AtomicInteger(0);
+        // Checked after all threads have finished a round, and before any thread rotates the bucket again.
+        final CyclicBarrier barrier = new CyclicBarrier(nThreads, new Runnable() {
+            @Override
+            public void run() {
+                long time = startTime + round.get() * (long)windowLengthInMs;
+                if (leapArray.currentWindow(time).value().pass() != nThreads * passPerThread) {
+                    lostRounds.incrementAndGet();
+                }
+                round.incrementAndGet();
+            }
+        });
+        final CountDownLatch latch = new CountDownLatch(nThreads);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int r = 0; r < rounds; r++) {
+                        // Every round is a new window, so the first writers of each round race to rotate the bucket.
+                        long time = startTime + r * (long)windowLengthInMs;
+                        for (int i = 0; i < passPerThread; i++) {
+                            leapArray.currentWindow(time).value().addPass();
+                        }
+                        barrier.await();
+                    }
+                } catch (Exception e) {
+                    barrier.reset();
+                } finally {
+                    latch.countDown();
+                }
+            }
+        };
+
+        for (int i = 0; i < nThreads; i++) {
+            new Thread(task).start();
+        }
+        latch.await();
+
+        assertEquals(rounds, round.get());
+        assertEquals(0, lostRounds.get());
+    }
+
+    @Test
+    public void testRotateWindowInPlace() {
+        WindowLeapArray leapArray = new WindowLeapArray(windowLengthInMs, intervalInSec);
+        long time = TimeUtil.currentTimeMillis();
+        WindowWrap<Window> wrap = leapArray.currentWindow(time);
+        Window window = wrap.value();
+        window.addPass();
+        window.addBlock();
+
+        long nextTime = time + intervalInSec * 1000;
+        WindowWrap<Window> rotated = leapArray.currentWindow(nextTime);
+        assertSame(wrap, rotated);
+        assertSame(window, rotated.value());
+        assertEquals(nextTime - nextTime % windowLengthInMs, rotated.windowStart());
+        assertEquals(0, rotated.value().pass());
+        assertEquals(0, rotated.value().block());
+    }
+
     @Test
     public void testGetPreviousWindow() {
         WindowLeapArray leapArray = new WindowLeapArray(windowLengthInMs, intervalInSec);
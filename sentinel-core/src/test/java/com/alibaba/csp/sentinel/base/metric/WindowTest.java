@@ -0,0 +1,107 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.base.metric;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.Window;
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link Window}.
+ */
+public class WindowTest {
+
+    @Test
+    public void testMinMaxRt() {
+        Window window = new Window();
+        assertEquals(4900, window.minRt());
+        assertEquals(0, window.maxRt());
+
+        window.addRtMicros(2500);
+        window.addRtMicros(800);
+        window.addRT(7);
+
+        assertEquals(800, window.minRtMicros());
+        assertEquals(0, window.minRt());
+        assertEquals(7000, window.maxRtMicros());
+        assertEquals(7, window.maxRt());
+
+        window.reset();
+        assertEquals(4900, window.minRt());
+        assertEquals(0, window.maxRtMicros());
+    }
+
+    @Test
+    public void testConcurrentMinMaxRt() throws Exception {
+        final Window window = new Window();
+        final int threads = 8;
+        final int loops = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        // Every thread records a descending then ascending sequence, so updates keep racing.
+                        for (int i = loops; i > 0; i--) {
+                            window.addRtMicros(i * threads + offset);
+                        }
+                        for (int i = 1; i <= loops; i++) {
+                            window.addRtMicros(i * threads + offset);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        assertEquals(threads, window.minRtMicros());
+        assertEquals((long)loops * threads + threads - 1, window.maxRtMicros());
+        long totalRt = 0;
+        for (int t = 0; t < threads; t++) {
+            for (int i = 1; i <= loops; i++) {
+                totalRt += 2L * (i * threads + t);
+            }
+        }
+        assertEquals(totalRt, window.get(MetricEvent.RT));
+    }
+
+    @Test
+    public void testArrayMetricMaxRt() {
+        ArrayMetric metric = new ArrayMetric(500, 1);
+        assertEquals(0, metric.maxRtMicros());
+        metric.addRtMicros(300);
+        metric.addRtMicros(1700);
+        metric.addRT(1);
+        assertEquals(1700, metric.maxRtMicros());
+        assertEquals(300, metric.minRtMicros());
+        assertEquals(1, metric.minRt());
+    }
+}
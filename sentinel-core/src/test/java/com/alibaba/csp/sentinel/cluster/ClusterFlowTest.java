@@ -0,0 +1,283 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.server.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.ClusterTokenServer;
+import com.alibaba.csp.sentinel.cluster.server.DefaultTokenService;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for cluster flow control with an in-process token server.
+ */
+public class ClusterFlowTest {
+
+    private static final long FLOW_ID = 101L;
+
+    private ClusterTokenServer server;
+    private ClusterTokenClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        TimeUtil.setClock(new VirtualClock(100000));
+        ClusterFlowRuleManager.loadRules(Collections.singletonList(clusterRule("testClusterFlow", 10, true)));
+        server = new ClusterTokenServer(0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        TokenClientProvider.register(null);
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+        ClusterFlowRuleManager.loadRules(null);
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testDefaultTokenService() {
+        DefaultTokenService service = new DefaultTokenService();
+        assertEquals(TokenResultStatus.NO_RULE_EXISTS, service.requestToken(FLOW_ID + 1, 1).getStatus());
+        assertEquals(TokenResultStatus.BAD_REQUEST, service.requestToken(FLOW_ID, 0).getStatus());
+
+        TokenResult result = service.requestToken(FLOW_ID, 2, 5);
+        assertTrue(result.isOk());
+        assertEquals(7, result.getGrantedCount());
+        // Only 3 tokens left, prefetching is limited by them.
+        result = service.requestToken(FLOW_ID, 1, 5);
+        assertTrue(result.isOk());
+        assertEquals(3, result.getGrantedCount());
+        assertEquals(TokenResultStatus.BLOCKED, service.requestToken(FLOW_ID, 1).getStatus());
+    }
+
+    @Test
+    public void testRequestThroughServer() {
+        client = new ClusterTokenClient("127.0.0.1", server.getPort());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(client.requestToken(FLOW_ID, 1).isOk());
+        }
+        assertEquals(TokenResultStatus.BLOCKED, client.requestToken(FLOW_ID, 1).getStatus());
+        assertTrue(client.isConnected());
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    public void testConcurrentRequestsShareConnection() throws Exception {
+        ClusterFlowRuleManager.loadRules(Collections.singletonList(clusterRule("testClusterFlow", 100000, true)));
+        client = new ClusterTokenClient("127.0.0.1", server.getPort(), 1000, 0, 2000);
+        final int threads = 8;
+        final int requestsPerThread = 200;
+        final AtomicInteger granted = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            final int acquireCount = i + 1;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int r = 0; r < requestsPerThread; r++) {
+                            TokenResult result = client.requestToken(FLOW_ID, acquireCount);
+                            // Responses are matched by request id, so each thread gets its own count.
+                            if (result.isOk() && result.getGrantedCount() == acquireCount) {
+                                granted.incrementAndGet();
+                            }
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await();
+
+        assertEquals(threads * requestsPerThread, granted.get());
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    public void testPrefetchedTokens() {
+        client = new ClusterTokenClient("127.0.0.1", server.getPort(), 1000, 4, 2000);
+        DefaultTokenService service = new DefaultTokenService();
+
+        assertTrue(client.requestToken(FLOW_ID, 1).isOk());
+        // The server has counted 1 acquired + 4 prefetched tokens.
+        assertEquals(5, service.requestToken(FLOW_ID, 5).getGrantedCount());
+        assertEquals(TokenResultStatus.BLOCKED, service.requestToken(FLOW_ID, 1).getStatus());
+
+        // Prefetched tokens are used without calling the server.
+        for (int i = 0; i < 4; i++) {
+            assertTrue(client.requestToken(FLOW_ID, 1).isOk());
+        }
+        assertEquals(TokenResultStatus.BLOCKED, client.requestToken(FLOW_ID, 1).getStatus());
+    }
+
+    @Test
+    public void testPrefetchedTokensAdded() {
+        ClusterFlowRuleManager.loadRules(Collections.singletonList(clusterRule("testClusterFlow", 20, true)));
+        client = new ClusterTokenClient("127.0.0.1", server.getPort(), 1000, 4, 2000);
+
+        assertTrue(client.requestToken(FLOW_ID, 1).isOk());
+        // More than the 4 prefetched tokens, so the server is called and grants 4 more.
+        assertTrue(client.requestToken(FLOW_ID, 5).isOk());
+        int acquired = 6;
+        while (client.requestToken(FLOW_ID, 1).isOk()) {
+            acquired++;
+        }
+        // Tokens counted by the server are never lost.
+        assertEquals(20, acquired);
+    }
+
+    @Test
+    public void testClusterRuleThroughFlowSlot() throws Exception {
+        String resource = "testClusterFlow";
+        FlowRuleManager.loadRules(Collections.singletonList(clusterRule(resource, 100, true)));
+        client = new ClusterTokenClient("127.0.0.1", server.getPort());
+        TokenClientProvider.register(client);
+
+        // The local threshold is 100, but the global threshold in the token server is 10.
+        assertEquals(10, passCount(resource, 15));
+    }
+
+    @Test
+    public void testFallbackToLocalWhenServerUnreachable() throws Exception {
+        String resource = "testClusterFlowFallback";
+        FlowRuleManager.loadRules(Collections.singletonList(clusterRule(resource, 3, true)));
+        client = new ClusterTokenClient("127.0.0.1", freePort(), 100, 0, 60 * 1000);
+        TokenClientProvider.register(client);
+
+        assertEquals(3, passCount(resource, 5));
+        assertFalse(client.isConnected());
+    }
+
+    @Test
+    public void testPassWhenServerUnreachableWithoutFallback() throws Exception {
+        String resource = "testClusterFlowNoFallback";
+        FlowRuleManager.loadRules(Collections.singletonList(clusterRule(resource, 3, false)));
+        client = new ClusterTokenClient("127.0.0.1", freePort(), 100, 0, 60 * 1000);
+        TokenClientProvider.register(client);
+
+        assertEquals(5, passCount(resource, 5));
+    }
+
+    @Test
+    public void testFallbackToPerInstanceCount() throws Exception {
+        String resource = "testClusterFlowFallbackCount";
+        FlowRule rule = clusterRule(resource, 10, true);
+        rule.getClusterConfig().setFallbackCount(2d);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        client = new ClusterTokenClient("127.0.0.1", freePort(), 100, 0, 60 * 1000);
+        TokenClientProvider.register(client);
+
+        assertEquals(2, passCount(resource, 5));
+    }
+
+    @Test
+    public void testWaitForConnectionBoundedByTimeout() throws Exception {
+        // The server never responds, so every request waits until timeout.
+        ServerSocket silentServer = new ServerSocket(0);
+        try {
+            final int timeoutMs = 200;
+            final int threads = 6;
+            client = new ClusterTokenClient("127.0.0.1", silentServer.getLocalPort(), timeoutMs, 0, 0);
+            final CountDownLatch done = new CountDownLatch(threads);
+            final AtomicLong maxElapsed = new AtomicLong(0);
+            for (int i = 0; i < threads; i++) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        long start = System.currentTimeMillis();
+                        try {
+                            client.requestToken(FLOW_ID, 1);
+                        } finally {
+                            long elapsed = System.currentTimeMillis() - start;
+                            while (true) {
+                                long current = maxElapsed.get();
+                                if (elapsed <= current || maxElapsed.compareAndSet(current, elapsed)) {
+                                    break;
+                                }
+                            }
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+            done.await();
+            // Requests don't wait for each other, which would take threads * timeoutMs.
+            assertTrue(maxElapsed.get() < timeoutMs * 3);
+        } finally {
+            silentServer.close();
+        }
+    }
+
+    private static FlowRule clusterRule(String resource, double count, boolean fallbackToLocal) {
+        FlowRule rule = new FlowRule();
+        rule.setResource(resource);
+        rule.setCount(count);
+        rule.setClusterMode(true);
+        rule.setClusterConfig(new ClusterFlowConfig().setFlowId(FLOW_ID).setFallbackToLocalWhenFail(fallbackToLocal));
+        return rule;
+    }
+
+    private static int passCount(String resource, int requests) {
+        int passed = 0;
+        for (int i = 0; i < requests; i++) {
+            Entry entry = null;
+            try {
+                entry = SphU.entry(resource);
+                passed++;
+            } catch (BlockException e) {
+                // Blocked.
+            } finally {
+                if (entry != null) {
+                    entry.exit();
+                }
+            }
+        }
+        return passed;
+    }
+
+    private static int freePort() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        int port = socket.getLocalPort();
+        socket.close();
+        return port;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.ErrorEntryFreeException;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+
+/**
+ * Test cases for {@link SentinelExecutorService}.
+ */
+public class SentinelExecutorServiceTest {
+
+    @Test
+    public void testContextPropagation() throws Exception {
+        ExecutorService executor = new SentinelExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            final Context context = ContextUtil.enter("testContextPropagation", "app1");
+            final Entry outer = SphU.entry("outerResourceOfExecutor");
+
+            Boolean result = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    Context workerContext = ContextUtil.getContext();
+                    assertNotSame(context, workerContext);
+                    assertEquals("testContextPropagation", workerContext.getName());
+                    assertEquals("app1", workerContext.getOrigin());
+                    assertNotSame(outer, workerContext.getCurEntry());
+                    assertSame(outer.getCurNode(), workerContext.getCurEntry().getCurNode());
+
+                    Entry nested = SphU.entry("nestedResourceOfExecutor");
+                    assertSame(outer.getCurNode(), nested.getLastNode());
+                    nested.exit();
+                    return true;
+                }
+            }).get();
+            assertTrue(result);
+            // Context of the submitting thread is untouched.
+            assertSame(outer, context.getCurEntry());
+            outer.exit();
+            ContextUtil.exit();
+
+            // Context of the worker thread is restored after the task.
+            Context workerContext = executor.submit(new Callable<Context>() {
+                @Override
+                public Context call() throws Exception {
+                    return ContextUtil.getContext();
+                }
+            }).get();
+            assertNull(workerContext);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNestedEntriesInWorkerWhileCallerInsideEntry() throws Exception {
+        ExecutorService executor = new SentinelExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            final Context context = ContextUtil.enter("testNestedEntriesInWorker");
+            final Entry outer = SphU.entry("outerResourceOfNestedWorker");
+
+            Boolean misPaired = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    Entry first = SphU.entry("firstResourceOfNestedWorker");
+                    Entry second = SphU.entry("secondResourceOfNestedWorker");
+                    assertSame(outer.getCurNode(), first.getLastNode());
+                    assertSame(first.getCurNode(), second.getLastNode());
+                    try {
+                        // Mis-paired exit only cleans the entries of the worker.
+                        first.exit();
+                        return false;
+                    } catch (ErrorEntryFreeException ex) {
+                        return true;
+                    }
+                }
+            }).get();
+            assertTrue(misPaired);
+
+            // Entries of the caller are neither linked to nor exited by the worker.
+            assertSame(outer, context.getCurEntry());
+            assertEquals(1, outer.getCurNode().curThreadNum());
+            outer.exit();
+            assertNull(context.getCurEntry());
+            assertEquals(0, outer.getCurNode().curThreadNum());
+        } finally {
+            ContextUtil.exit();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for origin nodes of {@link ClusterNode}.
+ */
+public class ClusterNodeTest {
+
+    private VirtualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+    }
+
+    @After
+    public void tearDown() {
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testGetOriginNode() {
+        ClusterNode clusterNode = new ClusterNode(10);
+        Node node = clusterNode.getOriginNode("app1");
+        assertSame(node, clusterNode.getOriginNode("app1"));
+        assertNotSame(node, clusterNode.getOriginNode("app2"));
+
+        Map<String, StatisticNode> originMap = clusterNode.getOriginCountMap();
+        assertEquals(2, originMap.size());
+        assertSame(node, originMap.get("app1"));
+    }
+
+    @Test
+    public void testOverflowWhenNoIdleOrigin() {
+        ClusterNode clusterNode = new ClusterNode(2);
+        clusterNode.getOriginNode("app1").addPassRequest();
+        clusterNode.getOriginNode("app2").increaseThreadNum();
+
+        Node overflow = clusterNode.getOriginNode("app3");
+        assertSame(overflow, clusterNode.getOriginNode("app4"));
+        overflow.addPassRequest();
+
+        Map<String, StatisticNode> originMap = clusterNode.getOriginCountMap();
+        assertEquals(3, originMap.size());
+        assertSame(overflow, originMap.get(ClusterNode.OVERFLOW_ORIGIN));
+        assertNull(originMap.get("app3"));
+        assertEquals(1, overflow.passQps());
+    }
+
+    @Test
+    public void testEvictIdleOrigins() {
+        ClusterNode clusterNode = new ClusterNode(2);
+        Node app1 = clusterNode.getOriginNode("app1");
+        Node app2 = clusterNode.getOriginNode("app2");
+        app1.addPassRequest();
+        app2.addPassRequest();
+        app2.increaseThreadNum();
+
+        // Data of both origins are still in minute-level statistics.
+        clock.advance(60, TimeUnit.SECONDS);
+        Node overflow = clusterNode.getOriginNode("app3");
+        assertSame(overflow, clusterNode.getOriginCountMap().get(ClusterNode.OVERFLOW_ORIGIN));
+
+        // app1 has been idle for the whole interval, but app2 still has a running thread.
+        clock.advance(61, TimeUnit.SECONDS);
+        Node app3 = clusterNode.getOriginNode("app3");
+        assertNotSame(overflow, app3);
+        Map<String, StatisticNode> originMap = clusterNode.getOriginCountMap();
+        assertNull(originMap.get("app1"));
+        assertSame(app2, originMap.get("app2"));
+        assertSame(app3, originMap.get("app3"));
+
+        // Evicting scan is limited to once a second.
+        app2.decreaseThreadNum();
+        assertSame(overflow, clusterNode.getOriginNode("app4"));
+        clock.advance(1, TimeUnit.SECONDS);
+        assertNotSame(overflow, clusterNode.getOriginNode("app4"));
+    }
+
+    @Test
+    public void testRuleOriginNeverOverflows() {
+        FlowRule flowRule = new FlowRule();
+        flowRule.setResource("testRuleOriginNeverOverflows");
+        flowRule.setCount(10);
+        flowRule.setLimitApp("flowApp");
+        AuthorityRule authorityRule = new AuthorityRule();
+        authorityRule.setResource("testRuleOriginNeverOverflows");
+        authorityRule.setLimitApp("authApp1,authApp2");
+        FlowRuleManager.loadRules(Collections.singletonList(flowRule));
+        AuthorityRuleManager.loadRules(Collections.singletonList(authorityRule));
+        try {
+            ClusterNode clusterNode = new ClusterNode(2);
+            clusterNode.getOriginNode("app1").increaseThreadNum();
+            clusterNode.getOriginNode("app2").increaseThreadNum();
+            Node overflow = clusterNode.getOriginNode("app3");
+
+            Node flowApp = clusterNode.getOriginNode("flowApp");
+            Node authApp = clusterNode.getOriginNode("authApp2");
+            assertNotSame(overflow, flowApp);
+            assertNotSame(overflow, authApp);
+            Map<String, StatisticNode> originMap = clusterNode.getOriginCountMap();
+            assertSame(flowApp, originMap.get("flowApp"));
+            assertSame(authApp, originMap.get("authApp2"));
+            assertSame(overflow, clusterNode.getOriginNode("app4"));
+        } finally {
+            FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+            AuthorityRuleManager.loadRules(new ArrayList<AuthorityRule>());
+        }
+        assertFalse(ReservedOrigins.contains("flowApp"));
+        assertFalse(ReservedOrigins.contains("authApp1"));
+    }
+}
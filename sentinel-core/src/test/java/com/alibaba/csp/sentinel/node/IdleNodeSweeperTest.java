@@ -0,0 +1,204 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.concurrent.SentinelRunnable;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link IdleNodeSweeper} and {@link ContextUtil#evictIdleContexts(long)}.
+ */
+public class IdleNodeSweeperTest {
+
+    private static final long IDLE_MS = 10 * 60 * 1000;
+
+    private VirtualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+    }
+
+    @After
+    public void tearDown() {
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testEvictIdleContext() throws Exception {
+        EntranceNode entrance = enterAndExit("testEvictIdleContext", "testEvictIdleContextResource");
+        long evictedBefore = EvictionStatistics.getEvictedContexts();
+
+        clock.advance(IDLE_MS / 2, TimeUnit.MILLISECONDS);
+        ContextUtil.evictIdleContexts(IDLE_MS);
+        assertFalse(entrance.isRemoved());
+
+        clock.advance(IDLE_MS, TimeUnit.MILLISECONDS);
+        assertTrue(ContextUtil.evictIdleContexts(IDLE_MS) >= 1);
+        assertTrue(entrance.isRemoved());
+        assertFalse(Constants.ROOT.getChildList().contains(entrance));
+        assertTrue(EvictionStatistics.getEvictedContexts() > evictedBefore);
+        for (Node child : entrance.getChildList()) {
+            assertTrue(((DefaultNode)child).isRemoved());
+        }
+
+        // Entering the context again creates a new entrance and a new tree.
+        EntranceNode newEntrance = enterAndExit("testEvictIdleContext", "testEvictIdleContextResource");
+        assertNotSame(entrance, newEntrance);
+        assertFalse(newEntrance.isRemoved());
+        assertTrue(Constants.ROOT.getChildList().contains(newEntrance));
+        assertEquals(1, newEntrance.getChildList().size());
+        assertFalse(((DefaultNode)newEntrance.getChildList().iterator().next()).isRemoved());
+    }
+
+    @Test
+    public void testLiveContextNotEvicted() throws Exception {
+        Context context = ContextUtil.enter("testLiveContextNotEvicted");
+        EntranceNode entrance = (EntranceNode)context.getEntranceNode();
+        try {
+            assertEquals(1, entrance.getContextRefs());
+            clock.advance(IDLE_MS * 2, TimeUnit.MILLISECONDS);
+            ContextUtil.evictIdleContexts(IDLE_MS);
+            assertFalse(entrance.isRemoved());
+        } finally {
+            ContextUtil.exit();
+        }
+        assertEquals(0, entrance.getContextRefs());
+
+        clock.advance(IDLE_MS * 2, TimeUnit.MILLISECONDS);
+        ContextUtil.evictIdleContexts(IDLE_MS);
+        assertTrue(entrance.isRemoved());
+        assertFalse(entrance.retain());
+    }
+
+    @Test
+    public void testAsyncContextRetainsEntrance() throws Exception {
+        Context context = ContextUtil.enter("testAsyncContextRetainsEntrance");
+        EntranceNode entrance = (EntranceNode)context.getEntranceNode();
+        AsyncEntry entry;
+        try {
+            entry = SphU.asyncEntry("testAsyncContextRetainsEntranceResource");
+        } finally {
+            ContextUtil.exit();
+        }
+        assertEquals(1, entrance.getContextRefs());
+
+        clock.advance(IDLE_MS * 2, TimeUnit.MILLISECONDS);
+        ContextUtil.evictIdleContexts(IDLE_MS);
+        assertFalse(entrance.isRemoved());
+
+        entry.exit();
+        assertEquals(0, entrance.getContextRefs());
+        clock.advance(IDLE_MS * 2, TimeUnit.MILLISECONDS);
+        ContextUtil.evictIdleContexts(IDLE_MS);
+        assertTrue(entrance.isRemoved());
+    }
+
+    @Test
+    public void testForkedContextRetainsEntrance() throws Exception {
+        final Context context = ContextUtil.enter("testForkedContextRetainsEntrance");
+        final EntranceNode entrance = (EntranceNode)context.getEntranceNode();
+        final AtomicBoolean removedWhileRunning = new AtomicBoolean(true);
+        Runnable task;
+        try {
+            task = SentinelRunnable.wrap(new Runnable() {
+                @Override
+                public void run() {
+                    clock.advance(IDLE_MS * 2, TimeUnit.MILLISECONDS);
+                    ContextUtil.evictIdleContexts(IDLE_MS);
+                    removedWhileRunning.set(entrance.isRemoved());
+                }
+            });
+        } finally {
+            ContextUtil.exit();
+        }
+        task.run();
+        assertFalse(removedWhileRunning.get());
+        assertEquals(0, entrance.getContextRefs());
+
+        clock.advance(IDLE_MS * 2, TimeUnit.MILLISECONDS);
+        ContextUtil.evictIdleContexts(IDLE_MS);
+        assertTrue(entrance.isRemoved());
+
+        // The task runs without the captured context once the entrance is evicted.
+        final AtomicBoolean ranWithoutContext = new AtomicBoolean(false);
+        ContextUtil.enter("testForkedContextRetainsEntrance2");
+        try {
+            task = SentinelRunnable.wrap(new Runnable() {
+                @Override
+                public void run() {
+                    ranWithoutContext.set(ContextUtil.getContext() == null);
+                }
+            });
+        } finally {
+            ContextUtil.exit();
+        }
+        clock.advance(IDLE_MS * 2, TimeUnit.MILLISECONDS);
+        ContextUtil.evictIdleContexts(IDLE_MS);
+        task.run();
+        assertTrue(ranWithoutContext.get());
+    }
+
+    @Test
+    public void testSweepIdleTreeNode() throws Exception {
+        EntranceNode entrance = enterAndExit("testSweepIdleTreeNode", "testSweepIdleTreeNodeResource");
+        DefaultNode node = (DefaultNode)entrance.getChildList().iterator().next();
+        assertEquals(0, IdleNodeSweeper.sweepTreeOf(entrance));
+
+        long evictedBefore = EvictionStatistics.getEvictedTreeNodes();
+        clock.advance(2, TimeUnit.MINUTES);
+        assertEquals(1, IdleNodeSweeper.sweepTreeOf(entrance));
+        assertTrue(node.isRemoved());
+        assertTrue(entrance.getChildList().isEmpty());
+        assertEquals(evictedBefore + 1, EvictionStatistics.getEvictedTreeNodes());
+        assertFalse(entrance.isRemoved());
+
+        // The next invocation creates the tree node again.
+        assertSame(entrance, enterAndExit("testSweepIdleTreeNode", "testSweepIdleTreeNodeResource"));
+        assertEquals(1, entrance.getChildList().size());
+        DefaultNode newNode = (DefaultNode)entrance.getChildList().iterator().next();
+        assertNotSame(node, newNode);
+        assertEquals(1, newNode.passQps());
+    }
+
+    private EntranceNode enterAndExit(String contextName, String resource) throws Exception {
+        Context context = ContextUtil.enter(contextName);
+        try {
+            Entry entry = SphU.entry(resource);
+            entry.exit();
+            return (EntranceNode)context.getEntranceNode();
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link NodeSnapshot}.
+ */
+public class NodeSnapshotTest {
+
+    @Before
+    public void setUp() {
+        TimeUtil.setClock(new VirtualClock(100000));
+    }
+
+    @After
+    public void tearDown() {
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testSnapshotMatchesNode() {
+        StatisticNode node = new StatisticNode();
+        for (int i = 0; i < 6; i++) {
+            node.addPassRequest();
+        }
+        node.increaseBlockedQps();
+        node.increaseBlockedQps();
+        node.increaseExceptionQps();
+        node.rt(10);
+        node.rt(30);
+        node.increaseThreadNum();
+
+        NodeSnapshot snapshot = node.snapshot();
+        assertEquals(100000, snapshot.getTimestamp());
+        assertEquals(1, snapshot.curThreadNum());
+        assertEquals(node.passQps(), snapshot.passQps());
+        assertEquals(node.blockedQps(), snapshot.blockedQps());
+        assertEquals(node.totalQps(), snapshot.totalQps());
+        assertEquals(node.successQps(), snapshot.successQps());
+        assertEquals(node.exceptionQps(), snapshot.exceptionQps());
+        assertEquals(node.maxSuccessQps(), snapshot.maxSuccessQps());
+        assertEquals(20, snapshot.avgRt());
+        assertEquals(10, snapshot.minRt());
+        assertEquals(10000, snapshot.minRtMicros());
+        assertEquals(30, snapshot.maxRt());
+        assertEquals(30000, snapshot.maxRtMicros());
+        assertEquals(node.totalRequest(), snapshot.totalRequest());
+        assertEquals(node.blockedRequest(), snapshot.blockedRequest());
+        assertEquals(node.totalRequest() - node.blockedRequest(), snapshot.passedRequest());
+        assertEquals(node.totalSuccess(), snapshot.totalSuccess());
+        assertEquals(node.totalException(), snapshot.totalException());
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterWrites() {
+        StatisticNode node = new StatisticNode();
+        node.addPassRequest();
+        NodeSnapshot snapshot = node.snapshot();
+        long passQps = snapshot.passQps();
+
+        node.addPassRequest();
+        node.increaseBlockedQps();
+        assertEquals(passQps, snapshot.passQps());
+        assertEquals(passQps, snapshot.totalQps());
+        assertTrue(node.passQps() > passQps);
+    }
+
+    @Test
+    public void testSnapshotWithoutMinuteCounter() {
+        NodeSnapshot snapshot = new StatisticNode().snapshot();
+        assertEquals(0, snapshot.totalQps());
+        assertEquals(0, snapshot.totalRequest());
+        assertEquals(0, snapshot.totalException());
+        assertEquals(0, snapshot.maxRt());
+    }
+
+    @Test
+    public void testEntranceNodeSnapshotAggregatesChildren() {
+        EntranceNode entrance = new EntranceNode(new StringResourceWrapper("entrance", EntryType.IN), new ClusterNode());
+        DefaultNode a = new DefaultNode(new StringResourceWrapper("a", EntryType.IN), new ClusterNode());
+        DefaultNode b = new DefaultNode(new StringResourceWrapper("b", EntryType.IN), new ClusterNode());
+        entrance.addChild(a);
+        entrance.addChild(b);
+
+        a.addPassRequest();
+        a.rt(10);
+        b.addPassRequest();
+        b.increaseBlockedQps();
+        b.rt(30);
+        b.increaseThreadNum();
+
+        NodeSnapshot snapshot = entrance.snapshot();
+        assertEquals(entrance.passQps(), snapshot.passQps());
+        assertEquals(entrance.blockedQps(), snapshot.blockedQps());
+        assertEquals(entrance.totalQps(), snapshot.totalQps());
+        assertEquals(entrance.successQps(), snapshot.successQps());
+        assertEquals(entrance.avgRt(), snapshot.avgRt());
+        assertEquals(1, snapshot.curThreadNum());
+        assertEquals(entrance.totalRequest(), snapshot.totalRequest());
+        assertEquals(entrance.blockedRequest(), snapshot.blockedRequest());
+    }
+}
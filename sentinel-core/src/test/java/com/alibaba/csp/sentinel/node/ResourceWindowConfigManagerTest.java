@@ -0,0 +1,146 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ResourceWindowConfigManager}.
+ */
+public class ResourceWindowConfigManagerTest {
+
+    private VirtualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+    }
+
+    @After
+    public void tearDown() {
+        ResourceWindowConfigManager.loadConfigs(Collections.<ResourceWindowConfig>emptyList());
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testFineGrainedNodeSlidesSmoothly() {
+        StatisticNode coarse = new StatisticNode(2, 1);
+        StatisticNode fine = new StatisticNode(10, 1);
+
+        clock.setCurrentTimeMillis(100450);
+        for (int i = 0; i < 20; i++) {
+            coarse.addPassRequest();
+            fine.addPassRequest();
+        }
+        clock.advance(600, TimeUnit.MILLISECONDS);
+        // The whole 500ms bucket slides out of the coarse window, so requests 600ms ago are forgotten.
+        assertEquals(0, coarse.passQps());
+        assertEquals(20, fine.passQps());
+
+        clock.advance(400, TimeUnit.MILLISECONDS);
+        assertEquals(0, fine.passQps());
+    }
+
+    @Test
+    public void testMaxSuccessQpsUsesNodeLayout() {
+        StatisticNode node = new StatisticNode(10, 2);
+        assertEquals(10, node.getSampleCount());
+        assertEquals(2, node.getIntervalInSec());
+        for (int i = 0; i < 3; i++) {
+            node.rt(1);
+        }
+        // 200ms buckets, so 5 buckets per second.
+        assertEquals(15, node.maxSuccessQps());
+        assertEquals(1, node.successQps());
+    }
+
+    @Test
+    public void testLoadConfigResetsExistingNodes() throws Exception {
+        String resource = "testLoadConfigResetsExistingNodes";
+        ContextUtil.enter("testLoadConfigResetsExistingNodesContext", "app1");
+        Entry entry = SphU.entry(resource);
+        entry.exit();
+        ContextUtil.exit();
+
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resource, EntryType.OUT);
+        assertNotNull(clusterNode);
+        StatisticNode originNode = clusterNode.getOriginCountMap().get("app1");
+        assertNotNull(originNode);
+        assertEquals(1, clusterNode.passQps());
+        assertEquals(0, clusterNode.getSampleCount());
+
+        ResourceWindowConfigManager.loadConfigs(Arrays.asList(
+            new ResourceWindowConfig(resource, 10, 1),
+            new ResourceWindowConfig("invalid", 3, 1)));
+        assertNull(ResourceWindowConfigManager.getConfig("invalid"));
+
+        assertEquals(10, clusterNode.getSampleCount());
+        assertEquals(10, originNode.getSampleCount());
+        assertEquals(0, clusterNode.passQps());
+
+        ResourceWindowConfigManager.loadConfigs(Collections.<ResourceWindowConfig>emptyList());
+        assertEquals(0, clusterNode.getSampleCount());
+        assertEquals(0, originNode.getSampleCount());
+
+        // New nodes are created with the config.
+        String another = "testLoadConfigResetsExistingNodes2";
+        ResourceWindowConfigManager.loadConfigs(Arrays.asList(new ResourceWindowConfig(another, 4, 2)));
+        entry = SphU.entry(another);
+        entry.exit();
+        ClusterNode anotherNode = ClusterBuilderSlot.getClusterNode(another, EntryType.OUT);
+        assertEquals(4, anotherNode.getSampleCount());
+        assertEquals(2, anotherNode.getIntervalInSec());
+    }
+
+    @Test
+    public void testNodeBuiltWithResolvedConfig() {
+        String resource = "testNodeBuiltWithResolvedConfig";
+        ResourceWindowConfig config = new ResourceWindowConfig(resource, 4, 2);
+        DefaultNodeBuilder builder = new DefaultNodeBuilder();
+
+        ClusterNode clusterNode = builder.buildClusterNode(config);
+        DefaultNode treeNode = builder.buildTreeNode(new StringResourceWrapper(resource, EntryType.IN),
+            clusterNode, config);
+        assertEquals(4, clusterNode.getSampleCount());
+        assertEquals(2, clusterNode.getIntervalInSec());
+        assertEquals(4, treeNode.getSampleCount());
+        assertEquals(2, treeNode.getIntervalInSec());
+
+        // The config has been updated after the node was built, the published node follows the current one.
+        ResourceWindowConfigManager.loadConfigs(Arrays.asList(new ResourceWindowConfig(resource, 10, 1)));
+        ResourceWindowConfigManager.ensureLatest(resource, config, clusterNode);
+        assertEquals(10, clusterNode.getSampleCount());
+        assertEquals(1, clusterNode.getIntervalInSec());
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.Tracer;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StatisticNode}.
+ */
+public class StatisticNodeTest {
+
+    private VirtualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+    }
+
+    @After
+    public void tearDown() {
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testMinuteCounterCreatedOnFirstWrite() {
+        StatisticNode node = new StatisticNode();
+        assertFalse(node.hasMinuteCounter());
+        assertEquals(0, node.totalRequest());
+        assertEquals(0, node.blockedRequest());
+        assertEquals(0, node.totalSuccess());
+        assertEquals(0, node.totalException());
+        assertEquals(0, node.previousPassQps());
+        assertTrue(node.metrics().isEmpty());
+        assertFalse(node.hasMinuteCounter());
+
+        for (int i = 0; i < 4; i++) {
+            node.addPassRequest();
+        }
+        node.increaseBlockedQps();
+        node.increaseBlockedQps();
+        assertTrue(node.hasMinuteCounter());
+        // Minute-level counts are averaged by the 2-minute interval.
+        assertEquals(3, node.totalRequest());
+        assertEquals(1, node.blockedRequest());
+    }
+
+    @Test
+    public void testReclaimIdleMinuteCounter() {
+        StatisticNode node = new StatisticNode();
+        assertFalse(node.reclaimIdleMinuteCounter());
+
+        node.addPassRequest();
+        node.rt(10);
+        clock.advance(60, TimeUnit.SECONDS);
+        assertFalse(node.reclaimIdleMinuteCounter());
+        assertTrue(node.hasMinuteCounter());
+
+        clock.advance(61, TimeUnit.SECONDS);
+        assertTrue(node.reclaimIdleMinuteCounter());
+        assertFalse(node.hasMinuteCounter());
+        assertEquals(0, node.totalRequest());
+
+        // Created again on the next write.
+        node.increaseExceptionQps();
+        node.increaseExceptionQps();
+        assertTrue(node.hasMinuteCounter());
+        assertEquals(1, node.totalException());
+    }
+
+    @Test
+    public void testSweeperReclaimsIdleNodes() throws Exception {
+        String resource = "testSweeperReclaimsIdleNodes";
+        ContextUtil.enter("testSweeperReclaimsIdleNodesContext", "app1");
+        Entry entry = SphU.entry(resource);
+        DefaultNode defaultNode = (DefaultNode)entry.getCurNode();
+        entry.exit();
+        ContextUtil.exit();
+
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resource, EntryType.OUT);
+        StatisticNode originNode = clusterNode.getOriginCountMap().get("app1");
+        assertTrue(clusterNode.hasMinuteCounter());
+        assertTrue(originNode.hasMinuteCounter());
+        assertTrue(defaultNode.hasMinuteCounter());
+
+        clock.advance(60, TimeUnit.SECONDS);
+        MinuteCounterSweeper.sweep();
+        assertTrue(clusterNode.hasMinuteCounter());
+
+        clock.advance(61, TimeUnit.SECONDS);
+        assertTrue(MinuteCounterSweeper.sweep() >= 3);
+        assertFalse(clusterNode.hasMinuteCounter());
+        assertFalse(originNode.hasMinuteCounter());
+        assertFalse(defaultNode.hasMinuteCounter());
+    }
+
+    @Test
+    public void testDefaultNodeCountsOnceInClusterNode() {
+        ClusterNode clusterNode = new ClusterNode();
+        DefaultNode node = new DefaultNode(new StringResourceWrapper("testDefaultNodeCountsOnce", EntryType.IN),
+            clusterNode);
+        node.addPassRequest();
+        node.increaseBlockedQps();
+        node.increaseExceptionQps();
+        node.rt(20);
+
+        long now = TimeUtil.currentTimeMillis();
+        node.addPassRequest(1, now);
+        node.addRtMicros(40000, 1, now);
+
+        for (StatisticNode n : new StatisticNode[] {node, clusterNode}) {
+            assertEquals(2, n.passQps());
+            assertEquals(1, n.blockedQps());
+            assertEquals(1, n.exceptionQps());
+            assertEquals(2, n.successQps());
+            assertEquals(30, n.avgRt());
+            assertEquals(1, n.totalRequest());
+        }
+    }
+
+    @Test
+    public void testWriteWithProvidedTime() {
+        StatisticNode node = new StatisticNode();
+        long time = TimeUtil.currentTimeMillis();
+        clock.advance(500, TimeUnit.MILLISECONDS);
+
+        // Counted in the previous window, which is still in the interval.
+        node.addPassRequest(1, time);
+        node.increaseBlockedQps(1, time);
+        assertEquals(1, node.passQps());
+        assertEquals(1, node.blockedQps());
+        assertEquals(0, node.previousPassQps());
+
+        clock.advance(500, TimeUnit.MILLISECONDS);
+        assertEquals(0, node.passQps());
+        assertEquals(1, node.previousPassQps());
+        assertEquals(1, node.previousBlockQps());
+    }
+
+    @Test
+    public void testWeightedCounts() {
+        StatisticNode node = new StatisticNode();
+        node.addPassRequest(500);
+        node.increaseBlockedQps(20);
+        node.increaseExceptionQps(3);
+        node.addRtMicros(10000, 500, TimeUtil.currentTimeMillis());
+
+        assertEquals(500, node.passQps());
+        assertEquals(20, node.blockedQps());
+        assertEquals(3, node.exceptionQps());
+        assertEquals(500, node.successQps());
+        // Every token of the batch takes the RT of the batch.
+        assertEquals(10, node.avgRt());
+        assertEquals(10, node.maxRt());
+        assertEquals(260, node.totalRequest());
+    }
+
+    @Test
+    public void testBatchEntryAndTrace() throws Exception {
+        String resource = "testBatchEntryAndTrace";
+        Entry entry = SphU.entry(resource, 50);
+        Tracer.trace(new IllegalStateException(), 7);
+        entry.exit(50);
+
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resource, EntryType.OUT);
+        assertEquals(50, clusterNode.passQps());
+        assertEquals(50, clusterNode.successQps());
+        assertEquals(7, clusterNode.exceptionQps());
+    }
+}
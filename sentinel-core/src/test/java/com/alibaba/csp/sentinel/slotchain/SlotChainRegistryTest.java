@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.EntryType;
+
+/**
+ * Test cases for {@link SlotChainRegistry}.
+ */
+public class SlotChainRegistryTest {
+
+    @Test
+    public void testLookupSameResource() {
+        SlotChainRegistry registry = new SlotChainRegistry(10, 0);
+        ProcessorSlotChain chain = registry.lookup(new StringResourceWrapper("registryA", EntryType.IN));
+
+        assertNotNull(chain);
+        assertSame(chain, registry.lookup(new StringResourceWrapper("registryA", EntryType.OUT)));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testFullWithoutEviction() {
+        SlotChainRegistry registry = new SlotChainRegistry(1, 0);
+
+        assertNotNull(registry.lookup(new StringResourceWrapper("registryA", EntryType.IN)));
+        assertNull(registry.lookup(new StringResourceWrapper("registryB", EntryType.IN)));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testEvictIdleChain() {
+        SlotChainRegistry registry = new SlotChainRegistry(1, 5000);
+        ProcessorSlotChain chainA = registry.lookup(new StringResourceWrapper("registryA", EntryType.IN), 100000);
+        assertNotNull(chainA);
+
+        assertNotNull(registry.lookup(new StringResourceWrapper("registryB", EntryType.IN), 106000));
+        assertEquals(1, registry.size());
+
+        ProcessorSlotChain newChainA = registry.lookup(new StringResourceWrapper("registryA", EntryType.IN), 112000);
+        assertNotNull(newChainA);
+        assertNotSame(chainA, newChainA);
+    }
+
+    @Test
+    public void testActiveChainNotEvicted() {
+        SlotChainRegistry registry = new SlotChainRegistry(1, 5000);
+        ProcessorSlotChain chainA = registry.lookup(new StringResourceWrapper("registryA", EntryType.IN), 100000);
+        assertNotNull(chainA);
+
+        assertNull(registry.lookup(new StringResourceWrapper("registryB", EntryType.IN), 102000));
+        assertSame(chainA, registry.lookup(new StringResourceWrapper("registryA", EntryType.IN), 102000));
+    }
+
+    @Test
+    public void testPinnedChainNotEvicted() {
+        SlotChainRegistry registry = new SlotChainRegistry(1, 5000);
+        ProcessorSlotChain chainA = registry.lookupAndPin(new StringResourceWrapper("registryA", EntryType.IN), 100000);
+        assertNotNull(chainA);
+
+        assertNull(registry.lookup(new StringResourceWrapper("registryB", EntryType.IN), 106000));
+        assertSame(chainA, registry.lookup(new StringResourceWrapper("registryA", EntryType.IN), 106000));
+    }
+
+    @Test
+    public void testPinExistingChain() {
+        SlotChainRegistry registry = new SlotChainRegistry(1, 5000);
+        ProcessorSlotChain chainA = registry.lookup(new StringResourceWrapper("registryA", EntryType.IN), 100000);
+        assertSame(chainA, registry.lookupAndPin(new StringResourceWrapper("registryA", EntryType.IN), 100000));
+
+        assertNull(registry.lookup(new StringResourceWrapper("registryB", EntryType.IN), 106000));
+        assertSame(chainA, registry.lookup(new StringResourceWrapper("registryA", EntryType.IN), 106000));
+    }
+
+    @Test
+    public void testEvictedChainNotReturned() {
+        SlotChainRegistry registry = new SlotChainRegistry(1, 5000);
+        ProcessorSlotChain chainA = registry.lookup(new StringResourceWrapper("registryA", EntryType.IN), 100000);
+        ProcessorSlotChain chainB = registry.lookup(new StringResourceWrapper("registryB", EntryType.IN), 106000);
+        assertNotNull(chainB);
+
+        // The retired chain is never pinned, a new chain is created instead.
+        ProcessorSlotChain newChainA = registry.lookupAndPin(new StringResourceWrapper("registryA", EntryType.IN),
+            112000);
+        assertNotNull(newChainA);
+        assertNotSame(chainA, newChainA);
+        assertNull(registry.lookup(new StringResourceWrapper("registryB", EntryType.IN), 120000));
+    }
+}
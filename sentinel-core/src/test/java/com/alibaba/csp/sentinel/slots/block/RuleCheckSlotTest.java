@@ -0,0 +1,72 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+/**
+ * Test cases for {@link RuleCheckSlot}.
+ */
+public class RuleCheckSlotTest {
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    @Test
+    public void testCompileWithoutRules() {
+        assertNull(RuleCheckSlot.compile(new StringResourceWrapper("testCompileWithoutRules", EntryType.IN)));
+    }
+
+    @Test
+    public void testRecompileWhenRulesUpdated() throws BlockException {
+        String resource = "testRecompileWhenRulesUpdated";
+        Entry e = SphU.entry(resource);
+        e.exit();
+
+        FlowRule rule = new FlowRule();
+        rule.setResource(resource);
+        rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+        rule.setCount(0);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        assertNotNull(RuleCheckSlot.compile(new StringResourceWrapper(resource, EntryType.OUT)));
+
+        try {
+            SphU.entry(resource);
+            fail("should be blocked after the flow rule is loaded");
+        } catch (BlockException ex) {
+            assertTrue(BlockException.isBlockException(ex));
+        }
+
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+        e = SphU.entry(resource);
+        e.exit();
+    }
+}
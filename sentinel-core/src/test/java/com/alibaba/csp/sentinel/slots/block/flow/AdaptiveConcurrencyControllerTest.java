@@ -0,0 +1,170 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.node.RtProperty;
+import com.alibaba.csp.sentinel.node.StatisticNode;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for {@link AdaptiveConcurrencyController}.
+ */
+public class AdaptiveConcurrencyControllerTest {
+
+    private VirtualClock clock;
+    private StatisticNode node;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+        node = mock(StatisticNode.class);
+        when(node.successQps()).thenReturn(100L);
+        when(node.minRtMicros()).thenReturn(10000L);
+        when(node.avgRtMicros()).thenReturn(10000L);
+    }
+
+    @After
+    public void tearDown() {
+        TimeUtil.resetClock();
+        RtProperty.nanoTime = false;
+    }
+
+    @Test
+    public void testCanPassWithinLimit() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100);
+        assertEquals(20, controller.getLimit());
+
+        when(node.curThreadNum()).thenReturn(19);
+        assertTrue(controller.canPass(node, 1));
+        when(node.curThreadNum()).thenReturn(20);
+        assertFalse(controller.canPass(node, 1));
+    }
+
+    @Test
+    public void testLimitGrowsWhileRtFlat() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100);
+        when(node.curThreadNum()).thenReturn(90);
+
+        int lastLimit = controller.getLimit();
+        for (int i = 0; i < 300; i++) {
+            controller.canPass(node, 1);
+            assertTrue(controller.getLimit() >= lastLimit);
+            lastLimit = controller.getLimit();
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+        // Never exceeds the count of the rule.
+        assertEquals(100, controller.getLimit());
+    }
+
+    @Test
+    public void testLimitNotGrowWhenUnderused() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100);
+        when(node.curThreadNum()).thenReturn(1);
+
+        for (int i = 0; i < 100; i++) {
+            controller.canPass(node, 1);
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+        assertEquals(20, controller.getLimit());
+    }
+
+    @Test
+    public void testLimitCutWhenQueueing() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100);
+        when(node.curThreadNum()).thenReturn(90);
+        for (int i = 0; i < 300; i++) {
+            controller.canPass(node, 1);
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+        assertEquals(100, controller.getLimit());
+
+        // Requests begin to queue, the average RT goes far above the no-load RT.
+        when(node.avgRtMicros()).thenReturn(100000L);
+        int lastLimit = controller.getLimit();
+        for (int i = 0; i < 50; i++) {
+            controller.canPass(node, 1);
+            assertTrue(controller.getLimit() <= lastLimit);
+            lastLimit = controller.getLimit();
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+        assertTrue(controller.getLimit() < 10);
+        assertTrue(controller.getLimit() >= 1);
+    }
+
+    @Test
+    public void testLimitNotUpdatedWithinInterval() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100);
+        when(node.curThreadNum()).thenReturn(90);
+        when(node.avgRtMicros()).thenReturn(100000L);
+
+        clock.advance(1, TimeUnit.SECONDS);
+        controller.canPass(node, 1);
+        int limit = controller.getLimit();
+        for (int i = 0; i < 10; i++) {
+            controller.canPass(node, 1);
+        }
+        assertEquals(limit, controller.getLimit());
+    }
+
+    @Test
+    public void testSubMillisecondRt() {
+        RtProperty.nanoTime = true;
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100);
+        when(node.curThreadNum()).thenReturn(90);
+        when(node.minRtMicros()).thenReturn(200L);
+        when(node.avgRtMicros()).thenReturn(250L);
+        for (int i = 0; i < 300; i++) {
+            controller.canPass(node, 1);
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+        assertEquals(100, controller.getLimit());
+
+        // Queueing of a sub-millisecond resource is still observed.
+        when(node.avgRtMicros()).thenReturn(900L);
+        for (int i = 0; i < 50; i++) {
+            controller.canPass(node, 1);
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+        assertTrue(controller.getLimit() < 10);
+    }
+
+    @Test
+    public void testRtBelowMillisecondResolution() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100);
+        when(node.curThreadNum()).thenReturn(90);
+        // Measured by the millisecond clock, most requests take 0 ms.
+        when(node.minRtMicros()).thenReturn(0L);
+        when(node.avgRtMicros()).thenReturn(300L);
+        for (int i = 0; i < 300; i++) {
+            controller.canPass(node, 1);
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+        assertEquals(100, controller.getLimit());
+    }
+}
@@ -15,15 +15,27 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.PaceController;
 
@@ -85,4 +97,89 @@ public class PaceControllerTest {
 
     }
 
+    @Test
+    public void testTryReserve() {
+        VirtualClock clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+        try {
+            PaceController paceController = new PaceController(500, 10d);
+            Node node = mock(Node.class);
+
+            assertEquals(100000, paceController.tryReserve(node, 1));
+            for (int i = 1; i < 5; i++) {
+                assertEquals(100000 + i * 100, paceController.tryReserve(node, 1));
+            }
+            // The next pass time is 500 ms later, which exceeds the max queueing time.
+            assertEquals(-1, paceController.tryReserve(node, 1));
+            assertFalse(paceController.canPass(node, 1));
+
+            clock.advance(1, TimeUnit.SECONDS);
+            assertEquals(101000, paceController.tryReserve(node, 1));
+        } finally {
+            TimeUtil.resetClock();
+        }
+    }
+
+    @Test
+    public void testConcurrentReserveNeverSharesPassTime() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+        try {
+            final PaceController paceController = new PaceController(100000, 100d);
+            final Node node = mock(Node.class);
+            final List<Long> passTimes = Collections.synchronizedList(new ArrayList<Long>());
+            final CountDownLatch latch = new CountDownLatch(8);
+            for (int i = 0; i < 8; i++) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 100; j++) {
+                            passTimes.add(paceController.tryReserve(node, 1));
+                        }
+                        latch.countDown();
+                    }
+                }).start();
+            }
+            latch.await();
+
+            Collections.sort(passTimes);
+            assertEquals(800, passTimes.size());
+            for (int i = 0; i < passTimes.size(); i++) {
+                assertEquals(100000 + i * 10, (long)passTimes.get(i));
+            }
+        } finally {
+            TimeUtil.resetClock();
+        }
+    }
+
+    @Test
+    public void testNonBlockingRule() throws Exception {
+        VirtualClock clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+        String resource = "testPaceControllerNonBlocking";
+        try {
+            FlowRule rule = new FlowRule();
+            rule.setResource(resource);
+            rule.setCount(10);
+            rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER);
+            rule.setMaxQueueingTimeMs(500);
+            rule.setNonBlocking(true);
+            FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+            for (int i = 0; i < 5; i++) {
+                Entry entry = SphU.entry(resource);
+                assertEquals(i * 100, entry.getWaitInMs());
+                entry.exit();
+            }
+            try {
+                SphU.entry(resource);
+                fail("Should be blocked");
+            } catch (BlockException e) {
+                // Expected.
+            }
+        } finally {
+            FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+            TimeUtil.resetClock();
+        }
+    }
 }
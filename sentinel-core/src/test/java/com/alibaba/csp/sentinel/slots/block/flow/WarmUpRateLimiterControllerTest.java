@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpRateLimiterController;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for {@link WarmUpRateLimiterController}.
+ */
+public class WarmUpRateLimiterControllerTest {
+
+    private VirtualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+    }
+
+    @After
+    public void tearDown() {
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testColdIntervalFollowsColdFactor() {
+        WarmUpRateLimiterController controller = new WarmUpRateLimiterController(10, 10, 1000, 3);
+        Node node = mock(Node.class);
+
+        // Cold system passes at count / coldFactor, that is one request per 300 ms.
+        assertEquals(100000, controller.tryReserve(node, 1));
+        assertEquals(100300, controller.tryReserve(node, 1));
+        assertEquals(100600, controller.tryReserve(node, 1));
+        assertEquals(100900, controller.tryReserve(node, 1));
+        // Waiting 1200 ms exceeds the max queueing time.
+        assertEquals(-1, controller.tryReserve(node, 1));
+        assertFalse(controller.canPass(node, 1));
+    }
+
+    @Test
+    public void testIntervalShrinksWhileWarmingUp() {
+        WarmUpRateLimiterController controller = new WarmUpRateLimiterController(10, 10, 1000, 3);
+        Node node = mock(Node.class);
+        when(node.previousPassQps()).thenReturn(10L);
+
+        long lastInterval = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long first = controller.tryReserve(node, 1);
+            long second = controller.tryReserve(node, 1);
+            long interval = second - first;
+            assertTrue(interval <= lastInterval);
+            assertTrue(interval >= 100);
+            lastInterval = interval;
+            clock.advance(1, TimeUnit.SECONDS);
+        }
+        // Fully warmed up, requests pass at the stable interval (1 / count seconds).
+        assertEquals(100, lastInterval);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.clock.VirtualClock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParamFlowRule}, {@link ParamFlowSlot} and {@link ParameterMetric}.
+ */
+public class ParamFlowRuleTest {
+
+    private VirtualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+    }
+
+    @After
+    public void tearDown() {
+        ParamFlowRuleManager.loadRules(new ArrayList<ParamFlowRule>());
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testLimitPerParamValue() {
+        String resource = "testLimitPerParamValue";
+        ParamFlowRuleManager.loadRules(Collections.singletonList(
+            new ParamFlowRule(resource).setParamIdx(0).setCount(2)));
+
+        assertTrue(tryEntry(resource, "userA"));
+        assertTrue(tryEntry(resource, "userA"));
+        assertFalse(tryEntry(resource, "userA"));
+        // Other values are counted separately.
+        assertTrue(tryEntry(resource, "userB"));
+        assertTrue(tryEntry(resource, "userB"));
+        // Invocations without the parameter are not limited.
+        for (int i = 0; i < 5; i++) {
+            assertTrue(tryEntry(resource));
+        }
+
+        clock.advance(500, TimeUnit.MILLISECONDS);
+        assertTrue(tryEntry(resource, "userA"));
+        assertFalse(tryEntry(resource, "userA"));
+        clock.advance(1, TimeUnit.SECONDS);
+        assertTrue(tryEntry(resource, "userA"));
+        assertTrue(tryEntry(resource, "userA"));
+    }
+
+    @Test
+    public void testNegativeParamIdx() {
+        String resource = "testNegativeParamIdx";
+        ParamFlowRuleManager.loadRules(Collections.singletonList(
+            new ParamFlowRule(resource).setParamIdx(-1).setCount(1)));
+
+        assertTrue(tryEntry(resource, 1, "sku1"));
+        assertFalse(tryEntry(resource, 2, "sku1"));
+        assertTrue(tryEntry(resource, 2, "sku2"));
+    }
+
+    @Test
+    public void testCountersKeptWhenRuleUnchanged() {
+        String resource = "testCountersKeptWhenRuleUnchanged";
+        ParamFlowRuleManager.loadRules(Collections.singletonList(
+            new ParamFlowRule(resource).setParamIdx(0).setCount(1)));
+        assertTrue(tryEntry(resource, "userA"));
+
+        ParamFlowRuleManager.loadRules(Collections.singletonList(
+            new ParamFlowRule(resource).setParamIdx(0).setCount(1)));
+        assertFalse(tryEntry(resource, "userA"));
+
+        ParamFlowRuleManager.loadRules(Collections.singletonList(
+            new ParamFlowRule(resource).setParamIdx(0).setCount(2)));
+        assertTrue(tryEntry(resource, "userA"));
+    }
+
+    @Test
+    public void testMetricSizeBounded() {
+        ParameterMetric metric = new ParameterMetric(160);
+        long now = TimeUtil.currentTimeMillis();
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(metric.tryAcquire("key" + i, 1, 1, now));
+        }
+        assertTrue(metric.size() <= 160);
+
+        // Recently used values are kept.
+        assertFalse(metric.tryAcquire("key99999", 1, 1, now));
+    }
+
+    private static boolean tryEntry(String resource, Object... args) {
+        Entry entry = null;
+        try {
+            entry = SphU.entry(resource, EntryType.IN, 1, args);
+            return true;
+        } catch (ParamFlowException e) {
+            return false;
+        } catch (BlockException e) {
+            fail("Unexpected block exception: " + e);
+            return false;
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
+        }
+    }
+}
@@ -16,12 +16,15 @@
 package com.alibaba.csp.sentinel.slots.nodeselector;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
+
 import org.junit.Test;
 
 import com.alibaba.csp.sentinel.Constants;
@@ -29,8 +32,15 @@ import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.FlatNode;
+import com.alibaba.csp.sentinel.node.FlatStatisticProperty;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 /**
  * @author jialiang.linjl
@@ -158,4 +168,62 @@ public class NodeSelectorTest {
 
     }
 
+    @Test
+    public void testFlatStatisticMode() throws Exception {
+        final String resName = "testFlatStatisticMode";
+        final String firstEntry = "entry_flat_one";
+        final String anotherEntry = "entry_flat_another";
+        FlatStatisticProperty.enabled = true;
+        try {
+            Node firstNode = entryAndExit(firstEntry, resName);
+            Node anotherNode = entryAndExit(anotherEntry, resName);
+            assertTrue(firstNode instanceof FlatNode);
+            assertSame(firstNode, anotherNode);
+
+            ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resName);
+            assertEquals(2, clusterNode.passQps());
+            assertEquals(2, clusterNode.successQps());
+            assertEquals(clusterNode.passQps(), firstNode.passQps());
+            assertFalse(hasChild(firstEntry, resName));
+
+            // Chain rules need statistics of each context, so the per-context node is back.
+            FlowRule rule = new FlowRule();
+            rule.setResource(resName);
+            rule.setStrategy(RuleConstant.STRATEGY_CHAIN);
+            rule.setRefResource(firstEntry);
+            rule.setCount(100);
+            FlowRuleManager.loadRules(Collections.singletonList(rule));
+            Node treeNode = entryAndExit(firstEntry, resName);
+            assertFalse(treeNode instanceof FlatNode);
+            assertTrue(hasChild(firstEntry, resName));
+            assertEquals(3, clusterNode.passQps());
+        } finally {
+            FlatStatisticProperty.enabled = false;
+            FlowRuleManager.loadRules(null);
+        }
+    }
+
+    private static Node entryAndExit(String contextName, String resName) throws Exception {
+        ContextUtil.enter(contextName);
+        Entry entry = SphU.entry(resName);
+        Node node = ContextUtil.getContext().getCurNode();
+        entry.exit();
+        ContextUtil.exit();
+        return node;
+    }
+
+    private static boolean hasChild(String contextName, String resName) {
+        for (Node node : Constants.ROOT.getChildList()) {
+            EntranceNode entranceNode = (EntranceNode)node;
+            if (!entranceNode.getId().getName().equals(contextName)) {
+                continue;
+            }
+            for (Node child : entranceNode.getChildList()) {
+                if (((DefaultNode)child).getId().getName().equals(resName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link AdaptiveTickingClock}.
+ */
+public class AdaptiveTickingClockTest {
+
+    @Test
+    public void testParkWhenIdleAndWakeUpOnRead() throws Exception {
+        AdaptiveTickingClock clock = new AdaptiveTickingClock(50);
+        try {
+            assertTrue(clock.isTicking());
+            assertTrue(Math.abs(clock.currentTimeMillis() - System.currentTimeMillis()) < 100);
+
+            waitUntilParked(clock);
+
+            // Fall back on the system clock, and wake up the ticker.
+            long before = System.currentTimeMillis();
+            long time = clock.currentTimeMillis();
+            assertTrue(time >= before && time <= System.currentTimeMillis());
+            assertTrue(clock.isTicking());
+
+            Thread.sleep(20);
+            long cached = clock.currentTimeMillis();
+            assertTrue(System.currentTimeMillis() - cached < 100);
+        } finally {
+            clock.shutdown();
+        }
+        assertFalse(clock.isTicking());
+        long before = System.currentTimeMillis();
+        assertTrue(clock.currentTimeMillis() >= before);
+        assertFalse(clock.isTicking());
+    }
+
+    private void waitUntilParked(AdaptiveTickingClock clock) throws InterruptedException {
+        for (int i = 0; i < 100 && clock.isTicking(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(clock.isTicking());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util.clock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.Window;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.WindowLeapArray;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import static org.junit.Assert.*;
+
+/**
+ * Deterministic sliding window tests driven by {@link VirtualClock}.
+ */
+public class VirtualClockTest {
+
+    private VirtualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new VirtualClock(100000);
+        TimeUtil.setClock(clock);
+    }
+
+    @After
+    public void tearDown() {
+        TimeUtil.resetClock();
+    }
+
+    @Test
+    public void testAdvance() {
+        assertSame(clock, TimeUtil.getClock());
+        assertEquals(100000, TimeUtil.currentTimeMillis());
+        long nanos = TimeUtil.nanoTime();
+
+        assertEquals(100500, clock.advance(500, TimeUnit.MILLISECONDS));
+        assertEquals(100500, TimeUtil.currentTimeMillis());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), TimeUtil.nanoTime() - nanos);
+
+        clock.advance(999, TimeUnit.MICROSECONDS);
+        assertEquals(100500, TimeUtil.currentTimeMillis());
+        clock.advance(1, TimeUnit.MICROSECONDS);
+        assertEquals(100501, TimeUtil.currentTimeMillis());
+
+        clock.setCurrentTimeMillis(0);
+        assertEquals(0, TimeUtil.currentTimeMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCannotGoBackwards() {
+        clock.advance(-1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testLeapArrayRotation() {
+        WindowLeapArray leapArray = new WindowLeapArray(500, 1);
+        WindowWrap<Window> first = leapArray.currentWindow();
+        assertEquals(100000, first.windowStart());
+        first.value().addPass();
+
+        clock.advance(499, TimeUnit.MILLISECONDS);
+        assertSame(first, leapArray.currentWindow());
+
+        clock.advance(1, TimeUnit.MILLISECONDS);
+        WindowWrap<Window> second = leapArray.currentWindow();
+        assertEquals(100500, second.windowStart());
+        assertSame(first, leapArray.getPreviousWindow());
+        assertEquals(2, leapArray.list().size());
+
+        clock.advance(500, TimeUnit.MILLISECONDS);
+        // The first bucket is deprecated and reset in place.
+        WindowWrap<Window> third = leapArray.currentWindow();
+        assertSame(first, third);
+        assertEquals(101000, third.windowStart());
+        assertEquals(0, third.value().pass());
+        assertEquals(2, leapArray.list().size());
+    }
+
+    @Test
+    public void testArrayMetricSlidingSum() {
+        ArrayMetric metric = new ArrayMetric(500, 1);
+        metric.addPass();
+        metric.addPass();
+        clock.advance(500, TimeUnit.MILLISECONDS);
+        metric.addPass();
+        metric.addBlock();
+
+        assertEquals(3, metric.pass());
+        assertEquals(1, metric.block());
+        assertEquals(2, metric.previousWindowPass());
+
+        clock.advance(500, TimeUnit.MILLISECONDS);
+        assertEquals(1, metric.pass());
+        assertEquals(1, metric.block());
+
+        clock.advance(1000, TimeUnit.MILLISECONDS);
+        assertEquals(0, metric.pass());
+        assertEquals(0, metric.block());
+    }
+}
@@ -23,6 +23,7 @@ import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.NodeSnapshot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
@@ -66,13 +67,13 @@ public class FetchClusterNodeHumanCommandHandler implements CommandHandler<Strin
             "1m-pass", "1m-block", "1m-all", "exception")).append("\n");
         for (Entry<ResourceWrapper, ClusterNode> e : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
             if (e.getKey().getName().contains(name)) {
-                ClusterNode node = e.getValue();
+                NodeSnapshot node = e.getValue().snapshot();
                 String id = e.getKey().getShowName();
                 int lenNum = (int)Math.ceil((double)id.length() / nameLength) - 1;
 
                 sb.append(String.format(format, i + 1, lenNum == 0 ? id : id.substring(0, nameLength),
                     node.curThreadNum(), node.passQps(), node.blockedQps(), node.successQps(), node.totalQps(),
-                    node.avgRt(), node.totalRequest() - node.blockedRequest(), node.blockedRequest(),
+                    node.avgRt(), node.passedRequest(), node.blockedRequest(),
                     node.totalRequest(), node.exceptionQps())).append("\n");
                 for (int j = 1; j <= lenNum; ++j) {
                     int start = nameLength * j;
@@ -22,6 +22,7 @@ import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.NodeSnapshot;
 import com.alibaba.csp.sentinel.node.StatisticNode;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
@@ -86,13 +87,13 @@ public class FetchOriginCommandHandler implements CommandHandler<String> {
                 "1m-blocked", "1m-total")).append("\n");
 
         for (Entry<String, StatisticNode> e : cNode.getOriginCountMap().entrySet()) {
-            StatisticNode node = e.getValue();
+            NodeSnapshot node = e.getValue().snapshot();
             String id = e.getKey();
             int lenNum = (int)Math.ceil((double)id.length() / nameLength) - 1;
             sb.append(String
                 .format(format, i + 1, lenNum == 0 ? id : id.substring(0, nameLength), node.curThreadNum(),
                     node.passQps(), node.blockedQps(), node.totalQps(), node.avgRt(),
-                    node.totalRequest() - node.blockedRequest(), node.blockedRequest(), node.totalRequest()))
+                    node.passedRequest(), node.blockedRequest(), node.totalRequest()))
                 .append("\n");
             for (int j = 1; j <= lenNum; ++j) {
                 int start = nameLength * j;
@@ -23,7 +23,7 @@ import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
-import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.NodeSnapshot;
 import com.alibaba.csp.sentinel.command.vo.NodeVo;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
@@ -42,17 +42,14 @@ public class FetchSimpleClusterNodeCommandHandler implements CommandHandler<Stri
          */
         String type = request.getParam("type");
         List<NodeVo> list = new ArrayList<NodeVo>();
-        Map<ResourceWrapper, ClusterNode> map = ClusterBuilderSlot.getClusterNodeMap();
-        if (map == null) {
-            return CommandResponse.ofSuccess(JSONArray.toJSONString(list));
-        }
-        for (Map.Entry<ResourceWrapper, ClusterNode> entry : map.entrySet()) {
+        for (Map.Entry<ResourceWrapper, NodeSnapshot> entry : ClusterBuilderSlot.getClusterNodeSnapshots()
+            .entrySet()) {
             if ("notZero".equalsIgnoreCase(type)) {
                 if (entry.getValue().totalRequest() > 0) {
-                    list.add(NodeVo.fromClusterNode(entry.getKey(), entry.getValue()));
+                    list.add(NodeVo.fromSnapshot(entry.getKey().getShowName(), entry.getValue()));
                 }
             } else {
-                list.add(NodeVo.fromClusterNode(entry.getKey(), entry.getValue()));
+                list.add(NodeVo.fromSnapshot(entry.getKey().getShowName(), entry.getValue()));
             }
         }
         return CommandResponse.ofSuccess(JSONArray.toJSONString(list));
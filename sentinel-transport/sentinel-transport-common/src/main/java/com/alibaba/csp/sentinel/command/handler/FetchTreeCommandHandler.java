@@ -23,6 +23,7 @@ import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.NodeSnapshot;
 
 /**
  * @author qinan.qn
@@ -71,18 +72,19 @@ public class FetchTreeCommandHandler implements CommandHandler<String> {
         for (int i = 0; i < level; ++i) {
             sb.append("-");
         }
+        NodeSnapshot snapshot = node.snapshot();
         if (!(node instanceof EntranceNode)) {
             sb.append(String.format("%s(t:%s pq:%s bq:%s tq:%s rt:%s prq:%s 1mp:%s 1mb:%s 1mt:%s)",
-                node.getId().getShowName(), node.curThreadNum(), node.passQps(),
-                node.blockedQps(), node.totalQps(), node.avgRt(), node.successQps(),
-                node.totalRequest() - node.blockedRequest(), node.blockedRequest(),
-                node.totalRequest())).append("\n");
+                node.getId().getShowName(), snapshot.curThreadNum(), snapshot.passQps(),
+                snapshot.blockedQps(), snapshot.totalQps(), snapshot.avgRt(), snapshot.successQps(),
+                snapshot.passedRequest(), snapshot.blockedRequest(),
+                snapshot.totalRequest())).append("\n");
         } else {
             sb.append(String.format("EntranceNode: %s(t:%s pq:%s bq:%s tq:%s rt:%s prq:%s 1mp:%s 1mb:%s 1mt:%s)",
-                node.getId().getShowName(), node.curThreadNum(), node.passQps(),
-                node.blockedQps(), node.totalQps(), node.avgRt(), node.successQps(),
-                node.totalRequest() - node.blockedRequest(), node.blockedRequest(),
-                node.totalRequest())).append("\n");
+                node.getId().getShowName(), snapshot.curThreadNum(), snapshot.passQps(),
+                snapshot.blockedQps(), snapshot.totalQps(), snapshot.avgRt(), snapshot.successQps(),
+                snapshot.passedRequest(), snapshot.blockedRequest(),
+                snapshot.totalRequest())).append("\n");
         }
         for (Node n : node.getChildList()) {
             DefaultNode dn = (DefaultNode)n;
@@ -19,7 +19,9 @@ import java.util.UUID;
 
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.NodeSnapshot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 /**
  * This class is view object of {@link DefaultNode} or {@link ClusterNode}.
@@ -37,6 +39,10 @@ public class NodeVo {
     private Long blockedQps;
     private Long totalQps;
     private Long averageRt;
+    private Double rtP50;
+    private Double rtP90;
+    private Double rtP99;
+    private Double maxRt;
     private Long successQps;
     private Long exceptionQps;
     private Long oneMinutePassed;
@@ -62,18 +68,7 @@ public class NodeVo {
         vo.id = UUID.randomUUID().toString();
         vo.parentId = parentId;
         vo.resource = node.getId().getShowName();
-        vo.threadNum = node.curThreadNum();
-        vo.passQps = node.passQps();
-        vo.blockedQps = node.blockedQps();
-        vo.totalQps = node.totalQps();
-        vo.averageRt = node.avgRt();
-        vo.successQps = node.successQps();
-        vo.exceptionQps = node.exceptionQps();
-        vo.oneMinuteException = node.totalException();
-        vo.oneMinutePassed = node.totalRequest() - node.blockedRequest();
-        vo.oneMinuteBlocked = node.blockedRequest();
-        vo.oneMinuteTotal = node.totalRequest();
-        vo.timestamp = System.currentTimeMillis();
+        fill(vo, node.snapshot());
         return vo;
     }
 
@@ -99,23 +94,45 @@ public class NodeVo {
         if (node == null) {
             return null;
         }
+        return fromSnapshot(name, node.snapshot());
+    }
+
+    /**
+     * Present a {@link NodeSnapshot} of the resource, eg. one of {@link ClusterBuilderSlot#getClusterNodeSnapshots()}.
+     *
+     * @param name     resource name.
+     * @param snapshot the snapshot to be presented.
+     * @return node view object.
+     */
+    public static NodeVo fromSnapshot(String name, NodeSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
         NodeVo vo = new NodeVo();
         vo.resource = name;
-        vo.threadNum = node.curThreadNum();
-        vo.passQps = node.passQps();
-        vo.blockedQps = node.blockedQps();
-        vo.totalQps = node.totalQps();
-        vo.averageRt = node.avgRt();
-        vo.successQps = node.successQps();
-        vo.exceptionQps = node.exceptionQps();
-        vo.oneMinuteException = node.totalException();
-        vo.oneMinutePassed = node.totalRequest() - node.blockedRequest();
-        vo.oneMinuteBlocked = node.blockedRequest();
-        vo.oneMinuteTotal = node.totalRequest();
-        vo.timestamp = System.currentTimeMillis();
+        fill(vo, snapshot);
         return vo;
     }
 
+    private static void fill(NodeVo vo, NodeSnapshot snapshot) {
+        vo.threadNum = snapshot.curThreadNum();
+        vo.passQps = snapshot.passQps();
+        vo.blockedQps = snapshot.blockedQps();
+        vo.totalQps = snapshot.totalQps();
+        vo.averageRt = snapshot.avgRt();
+        vo.rtP50 = snapshot.rtPercentile(0.5);
+        vo.rtP90 = snapshot.rtPercentile(0.9);
+        vo.rtP99 = snapshot.rtPercentile(0.99);
+        vo.maxRt = snapshot.maxRtMicros() / 1000.0;
+        vo.successQps = snapshot.successQps();
+        vo.exceptionQps = snapshot.exceptionQps();
+        vo.oneMinuteException = snapshot.totalException();
+        vo.oneMinutePassed = snapshot.passedRequest();
+        vo.oneMinuteBlocked = snapshot.blockedRequest();
+        vo.oneMinuteTotal = snapshot.totalRequest();
+        vo.timestamp = snapshot.getTimestamp();
+    }
+
     public String getId() {
         return id;
     }
@@ -180,6 +197,38 @@ public class NodeVo {
         this.averageRt = averageRt;
     }
 
+    public Double getRtP50() {
+        return rtP50;
+    }
+
+    public void setRtP50(Double rtP50) {
+        this.rtP50 = rtP50;
+    }
+
+    public Double getRtP90() {
+        return rtP90;
+    }
+
+    public void setRtP90(Double rtP90) {
+        this.rtP90 = rtP90;
+    }
+
+    public Double getRtP99() {
+        return rtP99;
+    }
+
+    public void setRtP99(Double rtP99) {
+        this.rtP99 = rtP99;
+    }
+
+    public Double getMaxRt() {
+        return maxRt;
+    }
+
+    public void setMaxRt(Double maxRt) {
+        this.maxRt = maxRt;
+    }
+
     public Long getSuccessQps() {
         return successQps;
     }